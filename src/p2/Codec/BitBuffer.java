@@ -0,0 +1,106 @@
+package p2.Codec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import p2.DataStructures.List.BitList;
+
+/**
+ * Growable bit-packed buffer used to store Huffman encoded data.
+ *
+ * The bits are kept in a {@code BitList}, most significant bit first inside
+ * {@code long} words. This class adds what the codec needs on top of it:
+ * writing codes as a {@code BitSink} and converting to and from bytes and
+ * strings of '0' and '1'.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class BitBuffer extends BitList implements BitSink {
+
+	public BitBuffer(int initialWords) {
+		super(initialWords);
+	}
+
+	public BitBuffer() {
+		super();
+	}
+
+	/**
+	 * Packs the bits of the buffer into bytes, the last byte is padded with zeros
+	 *
+	 * @return array of {@link #byteSize()} bytes with the contents of the buffer
+	 */
+	public byte[] toByteArray() {
+		byte[] result = new byte[(int) byteSize()];
+		for (int i = 0; i < result.length; i++)
+			result[i] = (byte) (words[i >>> 3] >>> (56 - ((i & 7) << 3)));
+		return result;
+	}
+
+	/**
+	 * Builds a buffer from bytes produced by {@link #toByteArray()}
+	 *
+	 * @param data     packed bits
+	 * @param bitCount how many bits of data are meaningful
+	 * @return buffer with the given bits
+	 */
+	public static BitBuffer fromByteArray(byte[] data, long bitCount) {
+		return fromByteBuffer(ByteBuffer.wrap(data), bitCount);
+	}
+
+	/**
+	 * Builds a buffer from packed bits stored in a {@code ByteBuffer}, starting at
+	 * its current position. The position is left after the last byte read.
+	 *
+	 * @param data     buffer with the packed bits
+	 * @param bitCount how many bits of data are meaningful
+	 * @return buffer with the given bits
+	 */
+	public static BitBuffer fromByteBuffer(ByteBuffer data, long bitCount) {
+		if (bitCount < 0 || (bitCount + 7) >>> 3 > data.remaining())
+			throw new IllegalArgumentException("Bit count does not match the data.");
+		BitBuffer result = new BitBuffer((int) Math.max(1, (bitCount + 63) >>> 6));
+		int bytes = (int) ((bitCount + 7) >>> 3);
+		/* Whole words are read at once, the bytes are already in big endian order */
+		ByteBuffer in = data.slice().order(ByteOrder.BIG_ENDIAN);
+		int i = 0;
+		for (; i + 8 <= bytes; i += 8)
+			result.words[i >>> 3] = in.getLong(i);
+		for (; i < bytes; i++)
+			result.words[i >>> 3] |= (in.get(i) & 0xFFL) << (56 - ((i & 7) << 3));
+		data.position(data.position() + bytes);
+		/* Make sure the padding bits stay zero */
+		if ((bitCount & 63) != 0)
+			result.words[(int) (bitCount >>> 6)] &= -1L << (64 - (bitCount & 63));
+		result.bitCount = bitCount;
+		return result;
+	}
+
+	/**
+	 * Builds a buffer from a string of '0' and '1' characters
+	 *
+	 * @param bits string with the bits
+	 * @return buffer with the given bits
+	 */
+	public static BitBuffer fromString(String bits) {
+		BitBuffer result = new BitBuffer(Math.max(1, (bits.length() + 63) >>> 6));
+		for (int i = 0; i < bits.length(); i++) {
+			char c = bits.charAt(i);
+			if (c != '0' && c != '1')
+				throw new IllegalArgumentException("Invalid bit: " + c);
+			result.appendBit(c == '1');
+		}
+		return result;
+	}
+
+	/**
+	 * Debug view of the buffer as a string of '0' and '1' characters
+	 */
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder((int) Math.min(bitCount, Integer.MAX_VALUE - 8));
+		for (long i = 0; i < bitCount; i++)
+			result.append(getBit(i) == 1 ? '1' : '0');
+		return result.toString();
+	}
+}
@@ -0,0 +1,27 @@
+package p2.Codec;
+
+/**
+ * Destination for encoded bits
+ *
+ * Implemented by the in-memory {@code BitBuffer} and by writers that stream
+ * the bits somewhere else, so encoders don't need to know where their output
+ * ends up.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public interface BitSink {
+
+	/**
+	 * Appends the lowest {@code length} bits of {@code code}, most significant bit
+	 * first.
+	 *
+	 * @param code   bits to append, right aligned
+	 * @param length how many bits of code to append (0 to 64)
+	 */
+	public void append(long code, int length);
+
+	/**
+	 * @return amount of bits appended so far
+	 */
+	public long size();
+}
@@ -0,0 +1,123 @@
+package p2.Codec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Bit sink that packs the bits into bytes and streams them to a channel
+ * through a fixed size, reusable {@code ByteBuffer}, so the memory used does
+ * not depend on how many bits are written.
+ *
+ * Bits are packed most significant bit first, the same layout used by
+ * {@code BitBuffer#toByteArray()}. Once every bit is appended,
+ * {@link #finish()} must be called to pad the last byte with zeros and write
+ * whatever is still buffered.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class BitWriter implements BitSink {
+
+	// private fields
+	private WritableByteChannel channel;
+	private ByteBuffer buffer;
+	private long pending; // Bits not yet written, the lowest pendingBits are meaningful
+	private int pendingBits;
+	private long bitCount;
+	private long bytesWritten;
+	private boolean finished;
+	private static final int DEFAULT_SIZE = 1 << 16; // In bytes
+
+	public BitWriter(WritableByteChannel channel, int bufferSize) {
+		if (channel == null)
+			throw new IllegalArgumentException("Channel cannot be null.");
+		if (bufferSize < 1)
+			throw new IllegalArgumentException("Buffer size must be at least 1.");
+		this.channel = channel;
+		this.buffer = ByteBuffer.allocateDirect(bufferSize); // Channels write direct buffers without copying them
+	}
+
+	public BitWriter(WritableByteChannel channel) {
+		this(channel, DEFAULT_SIZE);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws UncheckedIOException if writing to the channel fails
+	 */
+	@Override
+	public void append(long code, int length) {
+		if (length < 0 || length > 64)
+			throw new IllegalArgumentException("Length must be between 0 and 64.");
+		if (finished)
+			throw new IllegalStateException("Writer is already finished.");
+		/* Keep every step under 32 bits so the pending bits never overflow */
+		if (length > 32) {
+			appendBits(code >>> 32, length - 32);
+			appendBits(code, 32);
+		} else {
+			appendBits(code, length);
+		}
+	}
+
+	private void appendBits(long code, int length) {
+		pending = (pending << length) | (code & ((1L << length) - 1));
+		pendingBits += length;
+		bitCount += length;
+		while (pendingBits >= 8) { // Move every complete byte to the buffer
+			if (!buffer.hasRemaining())
+				writeBuffer();
+			pendingBits -= 8;
+			buffer.put((byte) (pending >>> pendingBits));
+		}
+	}
+
+	/* Empties the buffer into the channel */
+	private void writeBuffer() {
+		try {
+			buffer.flip();
+			while (buffer.hasRemaining())
+				bytesWritten += channel.write(buffer);
+			buffer.clear();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Pads the last byte with zeros and writes everything that is still buffered.
+	 * No more bits can be appended afterwards. The channel is not closed.
+	 *
+	 * @throws IOException if writing to the channel fails
+	 */
+	public void finish() throws IOException {
+		if (finished)
+			return;
+		try {
+			if (pendingBits > 0) {
+				if (!buffer.hasRemaining())
+					writeBuffer();
+				buffer.put((byte) (pending << (8 - pendingBits)));
+				pendingBits = 0;
+			}
+			writeBuffer();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		finished = true;
+	}
+
+	@Override
+	public long size() {
+		return bitCount;
+	}
+
+	/**
+	 * @return amount of bytes written to the channel so far
+	 */
+	public long bytesWritten() {
+		return bytesWritten;
+	}
+}
@@ -0,0 +1,304 @@
+package p2.Codec;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+import p2.DataStructures.PriorityQueue.BinaryHeap;
+import p2.DataStructures.PriorityQueue.PriorityQueue;
+import p2.Utils.ChunkedFileReader;
+import p2.Utils.MappedFileReader;
+
+/**
+ * Multi-threaded engine that compresses files into block mode .huf files.
+ *
+ * The work is split in three stages connected by bounded queues:
+ * <ul>
+ * <li>a reader thread cuts the input in blocks of {@code blockSize}
+ * characters, or bytes for the byte alphabet,</li>
+ * <li>{@code threads} workers build the frequency table, the Huffman code and
+ * the packed bits of every block (see {@code HuffmanBlock}),</li>
+ * <li>the calling thread writes the finished blocks to the output, in input
+ * order, through a {@code HufBlockWriter}.</li>
+ * </ul>
+ *
+ * Workers finish blocks in any order, so the writer keeps the blocks that
+ * arrive early in a heap ordered by block number until the ones before them
+ * are written. At most {@link #maxBlocksInFlight()} blocks are read but not
+ * yet written: once that many are in flight the reader waits for the writer,
+ * so memory stays bounded even when a worker or the disk is slow.
+ *
+ * Every block is encoded on its own, so the throughput grows with the amount
+ * of workers until reading or writing the files becomes the bottleneck.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class BlockPipeline {
+
+	public static final int DEFAULT_BLOCK_SIZE = 1 << 18; // In symbols
+	public static final int DEFAULT_QUEUE_DEPTH = 4; // In blocks
+
+	/* Block read from the input, waiting for a worker. Holds either chars or bytes */
+	private static class Job {
+		private int sequence;
+		private CharBuffer text;
+		private ByteBuffer bytes;
+
+		public Job(int sequence, CharBuffer text, ByteBuffer bytes) {
+			this.sequence = sequence;
+			this.text = text;
+			this.bytes = bytes;
+		}
+	}
+
+	/* Message for the writer: an encoded block, the end of the input or an error */
+	private static class Result implements Comparable<Result> {
+		private int sequence;
+		private HuffmanBlock block;
+		private int blockCount = -1; // Total amount of blocks, only in the end of input message
+		private Throwable error;
+
+		@Override
+		public int compareTo(Result other) {
+			return Integer.compare(sequence, other.sequence);
+		}
+	}
+
+	/* Tells a worker that there are no more jobs */
+	private static final Job END = new Job(-1, null, null);
+
+	// private fields
+	private int threads;
+	private int blockSize;
+	private int queueDepth;
+
+	/**
+	 * @param threads    amount of worker threads that encode blocks
+	 * @param blockSize  amount of symbols (chars or bytes) per block
+	 * @param queueDepth capacity of the queues between the stages, in blocks
+	 */
+	public BlockPipeline(int threads, int blockSize, int queueDepth) {
+		if (threads < 1)
+			throw new IllegalArgumentException("Thread count must be at least 1.");
+		if (blockSize < 1 || blockSize > HufBlockWriter.MAX_BLOCK_SIZE)
+			throw new IllegalArgumentException("Block size must be between 1 and " + HufBlockWriter.MAX_BLOCK_SIZE + ".");
+		if (queueDepth < 1)
+			throw new IllegalArgumentException("Queue depth must be at least 1.");
+		this.threads = threads;
+		this.blockSize = blockSize;
+		this.queueDepth = queueDepth;
+	}
+
+	/**
+	 * Creates a pipeline with one worker per processor and the default block size
+	 * and queue depth
+	 */
+	public BlockPipeline() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_BLOCK_SIZE, DEFAULT_QUEUE_DEPTH);
+	}
+
+	public int threads() {
+		return threads;
+	}
+
+	public int blockSize() {
+		return blockSize;
+	}
+
+	public int queueDepth() {
+		return queueDepth;
+	}
+
+	/**
+	 * @return most blocks that can be read but not yet written at once
+	 */
+	public int maxBlocksInFlight() {
+		return threads + 2 * queueDepth;
+	}
+
+	/**
+	 * Compresses a file into a block mode .huf file. The input is read as UTF-8
+	 * text.
+	 *
+	 * @param inputFile  path of the file to be compressed
+	 * @param outputFile path of the .huf file to be written
+	 * @return size of the .huf file in bytes
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public long compress(Path inputFile, Path outputFile) throws IOException {
+		return compress(inputFile, outputFile, HufFormat.ALPHABET_CHAR);
+	}
+
+	/**
+	 * Compresses any file into a block mode .huf file with the byte alphabet. The
+	 * input is memory mapped and every block is a slice of a mapped region, so
+	 * the bytes go from the page cache to the workers without being copied or
+	 * decoded.
+	 *
+	 * @param inputFile  path of the file to be compressed
+	 * @param outputFile path of the .huf file to be written
+	 * @return size of the .huf file in bytes
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public long compressBytes(Path inputFile, Path outputFile) throws IOException {
+		return compress(inputFile, outputFile, HufFormat.ALPHABET_BYTE);
+	}
+
+	private long compress(Path inputFile, Path outputFile, int alphabet) throws IOException {
+		BlockingQueue<Job> jobs = new ArrayBlockingQueue<Job>(queueDepth);
+		BlockingQueue<Result> results = new ArrayBlockingQueue<Result>(queueDepth);
+		Semaphore inFlight = new Semaphore(maxBlocksInFlight());
+
+		Thread[] stages = new Thread[threads + 1];
+		stages[0] = new Thread(() -> read(inputFile, alphabet, jobs, results, inFlight), "huffman-reader");
+		for (int i = 1; i <= threads; i++)
+			stages[i] = new Thread(() -> encode(jobs, results), "huffman-worker-" + i);
+		for (Thread stage : stages) {
+			stage.setDaemon(true);
+			stage.start();
+		}
+
+		try (FileChannel out = FileChannel.open(outputFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			HufBlockWriter writer = new HufBlockWriter(out, alphabet, blockSize);
+			write(writer, results, inFlight);
+			writer.finish();
+			return writer.bytesWritten();
+		} finally {
+			/* Stops the other stages if the writer failed, does nothing if they are done */
+			for (Thread stage : stages)
+				stage.interrupt();
+		}
+	}
+
+	/* Reader stage: cuts the input in blocks and hands them to the workers */
+	private void read(Path inputFile, int alphabet, BlockingQueue<Job> jobs, BlockingQueue<Result> results,
+			Semaphore inFlight) {
+		int[] blockCount = { 0 };
+		try {
+			if (alphabet == HufFormat.ALPHABET_CHAR)
+				readText(inputFile, jobs, inFlight, blockCount);
+			else
+				readBytes(inputFile, jobs, inFlight, blockCount);
+			for (int i = 0; i < threads; i++)
+				jobs.put(END);
+
+			Result end = new Result();
+			end.blockCount = blockCount[0];
+			results.put(end);
+		} catch (InterruptedException e) {
+			return; // The writer stopped the pipeline
+		} catch (Throwable e) {
+			if (e.getCause() instanceof InterruptedException)
+				return;
+			fail(results, e instanceof UncheckedIOException ? e.getCause() : e);
+		}
+	}
+
+	/* Decodes the input as UTF-8 into blocks of blockSize chars */
+	private void readText(Path inputFile, BlockingQueue<Job> jobs, Semaphore inFlight, int[] blockCount)
+			throws IOException {
+		CharBuffer[] block = { CharBuffer.allocate(blockSize) };
+		ChunkedFileReader.read(inputFile, chunk -> {
+			while (chunk.hasRemaining()) {
+				int take = Math.min(chunk.remaining(), block[0].remaining());
+				block[0].put(chunk.subSequence(0, take));
+				chunk.position(chunk.position() + take);
+				if (!block[0].hasRemaining()) {
+					submit(jobs, inFlight, new Job(blockCount[0]++, block[0].flip(), null));
+					block[0] = CharBuffer.allocate(blockSize);
+				}
+			}
+		});
+		if (block[0].position() > 0)
+			submit(jobs, inFlight, new Job(blockCount[0]++, block[0].flip(), null));
+	}
+
+	/* Maps the input and slices it in blocks of blockSize bytes */
+	private void readBytes(Path inputFile, BlockingQueue<Job> jobs, Semaphore inFlight, int[] blockCount)
+			throws IOException {
+		/* Regions hold a whole number of blocks, so no block is split between two mappings */
+		long regionSize = (long) blockSize * Math.max(1, MappedFileReader.DEFAULT_REGION_SIZE / blockSize);
+		MappedFileReader.read(inputFile, regionSize, region -> {
+			for (int start = 0; start < region.limit(); start += blockSize) {
+				ByteBuffer block = region.slice(start, Math.min(blockSize, region.limit() - start));
+				submit(jobs, inFlight, new Job(blockCount[0]++, null, block));
+			}
+		});
+	}
+
+	private static void submit(BlockingQueue<Job> jobs, Semaphore inFlight, Job job) {
+		try {
+			inFlight.acquire(); // Released by the writer once the block is written
+			jobs.put(job);
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/* Worker stage: encodes blocks until the reader says there are no more */
+	private static void encode(BlockingQueue<Job> jobs, BlockingQueue<Result> results) {
+		try {
+			for (Job job = jobs.take(); job != END; job = jobs.take()) {
+				Result result = new Result();
+				result.sequence = job.sequence;
+				if (job.text != null)
+					result.block = HuffmanBlock.encode(job.text, 0, job.text.length());
+				else
+					result.block = HuffmanBlock.encode(job.bytes);
+				results.put(result);
+			}
+		} catch (InterruptedException e) {
+			return;
+		} catch (Throwable e) {
+			fail(results, e);
+		}
+	}
+
+	/* Reports an error to the writer, which stops the pipeline */
+	private static void fail(BlockingQueue<Result> results, Throwable error) {
+		Result result = new Result();
+		result.error = error;
+		try {
+			results.put(result);
+		} catch (InterruptedException e) {
+			// The writer already stopped the pipeline
+		}
+	}
+
+	/* Writer stage: writes the blocks in order as they are finished */
+	private static void write(HufBlockWriter writer, BlockingQueue<Result> results, Semaphore inFlight)
+			throws IOException {
+		PriorityQueue<Result> pending = new BinaryHeap<Result>(); // Blocks that arrived before their turn
+		int blockCount = -1;
+		try {
+			while (blockCount == -1 || writer.blockCount() < blockCount) {
+				Result result = results.take();
+				if (result.error instanceof IOException)
+					throw (IOException) result.error;
+				if (result.error != null)
+					throw new IllegalStateException("Block pipeline failed.", result.error);
+				if (result.blockCount != -1) {
+					blockCount = result.blockCount;
+					continue;
+				}
+				pending.add(result);
+				while (!pending.isEmpty() && pending.min().sequence == writer.blockCount()) {
+					writer.write(pending.removeMin().block);
+					inFlight.release();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while compressing.");
+		}
+	}
+}
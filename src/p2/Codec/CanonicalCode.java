@@ -0,0 +1,192 @@
+package p2.Codec;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Canonical Huffman codes
+ *
+ * A Huffman tree only matters for the length of the code it gives each
+ * symbol. Canonical codes keep those lengths but assign the codes themselves
+ * in order: symbols are sorted by (code length, symbol) and each one gets the
+ * next available code of its length. Since the codes follow from the lengths
+ * alone, a decoder only needs the list of lengths, which can be stored in a
+ * few bytes per symbol.
+ *
+ * Header format written by {@link #writeLengths(int[])}, all numbers are
+ * unsigned LEB128 variable length integers except the code lengths:
+ *
+ * <pre>
+ * symbolCount
+ * repeated symbolCount times, in increasing symbol order:
+ *     symbol - previousSymbol - 1   (previousSymbol starts at -1)
+ *     code length                   (one byte, 1 to 64)
+ * </pre>
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class CanonicalCode {
+
+	public static final int MAX_LENGTH = 64;
+
+	/**
+	 * Assigns canonical codes from the code length of each symbol
+	 *
+	 * @param lengths code length of each symbol, indexed by symbol (0 if the
+	 *                symbol has no code)
+	 * @return table with the canonical code of each symbol
+	 * @throws IllegalArgumentException if the lengths can't form a prefix code
+	 */
+	public static CodeTable assign(int[] lengths) {
+		int maxLength = 0;
+		int maxSymbol = 0;
+		for (int symbol = 0; symbol < lengths.length; symbol++) {
+			if (lengths[symbol] < 0 || lengths[symbol] > MAX_LENGTH)
+				throw new IllegalArgumentException("Invalid code length: " + lengths[symbol]);
+			if (lengths[symbol] > 0) {
+				maxLength = Math.max(maxLength, lengths[symbol]);
+				maxSymbol = symbol;
+			}
+		}
+
+		/* Count the codes of each length */
+		long[] lengthCount = new long[maxLength + 1];
+		for (int length : lengths)
+			if (length > 0)
+				lengthCount[length]++;
+
+		/* The first code of each length comes right after the last code of the
+		 * previous length, with one more bit */
+		long[] nextCode = new long[maxLength + 1];
+		long code = 0;
+		for (int length = 1; length <= maxLength; length++) {
+			code = (code + lengthCount[length - 1]) << 1;
+			nextCode[length] = code;
+		}
+
+		CodeTable result = new CodeTable(maxSymbol + 1);
+		for (int symbol = 0; symbol < lengths.length; symbol++) {
+			int length = lengths[symbol];
+			if (length == 0)
+				continue;
+			long symbolCode = nextCode[length]++;
+			if (length < MAX_LENGTH && symbolCode >>> length != 0)
+				throw new IllegalArgumentException("Code lengths don't form a prefix code.");
+			result.set(symbol, symbolCode, length);
+		}
+		return result;
+	}
+
+	/**
+	 * @param codeTable table with the code of each symbol
+	 * @return code length of each symbol, indexed by symbol
+	 */
+	public static int[] lengths(CodeTable codeTable) {
+		int[] result = new int[codeTable.alphabetSize()];
+		for (int symbol = 0; symbol < result.length; symbol++)
+			result[symbol] = codeTable.getLength(symbol);
+		return result;
+	}
+
+	/**
+	 * Replaces the codes of a table by the canonical codes with the same lengths.
+	 * The encoded size of any input doesn't change.
+	 *
+	 * @param codeTable table with the code of each symbol
+	 * @return table with the canonical code of each symbol
+	 */
+	public static CodeTable canonicalize(CodeTable codeTable) {
+		return assign(lengths(codeTable));
+	}
+
+	/**
+	 * Stores the code lengths in the compact header format described above
+	 *
+	 * @param lengths code length of each symbol, indexed by symbol
+	 * @return the header bytes
+	 */
+	public static byte[] writeLengths(int[] lengths) {
+		int symbolCount = 0;
+		for (int length : lengths)
+			if (length > 0)
+				symbolCount++;
+
+		/* At most 5 bytes per varint plus one per length */
+		ByteBuffer out = ByteBuffer.allocate(5 + symbolCount * 6);
+		writeVarInt(out, symbolCount);
+		int previous = -1;
+		for (int symbol = 0; symbol < lengths.length; symbol++) {
+			if (lengths[symbol] == 0)
+				continue;
+			if (lengths[symbol] > MAX_LENGTH)
+				throw new IllegalArgumentException("Invalid code length: " + lengths[symbol]);
+			writeVarInt(out, symbol - previous - 1);
+			out.put((byte) lengths[symbol]);
+			previous = symbol;
+		}
+
+		byte[] result = new byte[out.position()];
+		out.flip();
+		out.get(result);
+		return result;
+	}
+
+	/**
+	 * Reads code lengths stored with {@link #writeLengths(int[])}, starting at the
+	 * current position of the buffer. The position is left after the header.
+	 *
+	 * @param in buffer with the header
+	 * @return code length of each symbol, indexed by symbol
+	 * @throws IllegalArgumentException if the header is not valid
+	 */
+	public static int[] readLengths(ByteBuffer in) {
+		try {
+			int symbolCount = readVarInt(in);
+			if (symbolCount > FrequencyTable.CHAR_ALPHABET)
+				throw new IllegalArgumentException("Too many symbols in header.");
+			int[] symbols = new int[symbolCount];
+			int[] symbolLengths = new int[symbolCount];
+			long previous = -1;
+			for (int i = 0; i < symbolCount; i++) {
+				long symbol = previous + 1 + readVarInt(in);
+				if (symbol >= FrequencyTable.CHAR_ALPHABET) // Symbols are chars or bytes
+					throw new IllegalArgumentException("Invalid symbol in header.");
+				symbols[i] = (int) symbol;
+				symbolLengths[i] = in.get() & 0xFF;
+				if (symbolLengths[i] < 1 || symbolLengths[i] > MAX_LENGTH)
+					throw new IllegalArgumentException("Invalid code length in header.");
+				previous = symbol;
+			}
+
+			int[] result = new int[symbolCount == 0 ? 0 : symbols[symbolCount - 1] + 1];
+			for (int i = 0; i < symbolCount; i++)
+				result[symbols[i]] = symbolLengths[i];
+			return result;
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Header is truncated.");
+		}
+	}
+
+	/* Unsigned LEB128: 7 bits per byte, the high bit says if more bytes follow */
+	private static void writeVarInt(ByteBuffer out, int value) {
+		while ((value & ~0x7F) != 0) {
+			out.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.put((byte) value);
+	}
+
+	private static int readVarInt(ByteBuffer in) {
+		int result = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = in.get() & 0xFF;
+			result |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				if (result < 0)
+					throw new IllegalArgumentException("Invalid number in header.");
+				return result;
+			}
+		}
+		throw new IllegalArgumentException("Invalid number in header.");
+	}
+}
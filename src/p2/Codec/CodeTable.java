@@ -0,0 +1,227 @@
+package p2.Codec;
+
+import java.nio.ByteBuffer;
+
+import p2.DataStructures.Map.HashTableOA;
+import p2.DataStructures.Map.Map;
+
+/**
+ * Lookup table with the Huffman code of each symbol, indexed directly by the
+ * symbol's char value.
+ *
+ * Each code is stored right aligned in a {@code long} together with its length
+ * in bits, so encoding a symbol is two array reads and one
+ * {@link BitSink#append(long, int)}, with no map lookups or allocations.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class CodeTable {
+
+	// private fields
+	private long[] codes;
+	private byte[] lengths; // 0 means the symbol has no code
+	private int symbolCount;
+
+	/**
+	 * Creates an empty table able to hold codes for symbols 0 up to
+	 * {@code alphabetSize - 1}
+	 *
+	 * @param alphabetSize amount of symbols the table can hold
+	 */
+	public CodeTable(int alphabetSize) {
+		if (alphabetSize < 1)
+			throw new IllegalArgumentException("Alphabet size must be at least 1.");
+		this.codes = new long[alphabetSize];
+		this.lengths = new byte[alphabetSize];
+		this.symbolCount = 0;
+	}
+
+	/**
+	 * Builds a table from the code map generated by huffman_code, where every key
+	 * is a one character symbol and every value a string of '0' and '1'.
+	 *
+	 * @param encodingMap Map with the Huffman code for each symbol
+	 * @return table with the same codes as the map
+	 */
+	public static CodeTable fromMap(Map<String, String> encodingMap) {
+		int[] maxSymbol = { 0 };
+		encodingMap.forEach((symbol, code) -> maxSymbol[0] = Math.max(maxSymbol[0], toSymbol(symbol)));
+
+		CodeTable result = new CodeTable(maxSymbol[0] + 1);
+		encodingMap.forEach((symbol, code) -> {
+			if (code.length() > 64)
+				throw new IllegalArgumentException("Codes longer than 64 bits are not supported.");
+			long bits = 0;
+			for (int i = 0; i < code.length(); i++)
+				bits = (bits << 1) | (code.charAt(i) == '1' ? 1 : 0);
+			result.set(toSymbol(symbol), bits, code.length());
+		});
+		return result;
+	}
+
+	/* Symbols in the code maps are one character strings */
+	private static int toSymbol(String symbol) {
+		if (symbol.length() != 1)
+			throw new IllegalArgumentException("Symbols must be a single character: " + symbol);
+		return symbol.charAt(0);
+	}
+
+	/**
+	 * Sets the code of a symbol
+	 *
+	 * @param symbol symbol to set the code for
+	 * @param code   bits of the code, right aligned
+	 * @param length amount of bits in the code (1 to 64)
+	 */
+	public void set(int symbol, long code, int length) {
+		if (symbol < 0 || symbol >= lengths.length)
+			throw new IndexOutOfBoundsException("Symbol out of range: " + symbol);
+		if (length < 1 || length > 64)
+			throw new IllegalArgumentException("Length must be between 1 and 64.");
+		if (lengths[symbol] == 0)
+			symbolCount++;
+		codes[symbol] = code;
+		lengths[symbol] = (byte) length;
+	}
+
+	/**
+	 * @param symbol symbol to look for
+	 * @return bits of the code of the symbol, right aligned
+	 */
+	public long getCode(int symbol) {
+		return codes[symbol];
+	}
+
+	/**
+	 * @param symbol symbol to look for
+	 * @return length of the code of the symbol, 0 if it doesn't have one
+	 */
+	public int getLength(int symbol) {
+		return symbol >= 0 && symbol < lengths.length ? lengths[symbol] : 0;
+	}
+
+	/**
+	 * @param symbol symbol to look for
+	 * @return True if the symbol has a code, false otherwise
+	 */
+	public boolean contains(int symbol) {
+		return getLength(symbol) != 0;
+	}
+
+	/**
+	 * @return amount of symbols with a code in the table
+	 */
+	public int symbolCount() {
+		return symbolCount;
+	}
+
+	/**
+	 * @return largest symbol the table can hold plus one
+	 */
+	public int alphabetSize() {
+		return lengths.length;
+	}
+
+	/**
+	 * Computes how many bits an input with the given frequencies takes when
+	 * encoded with this table, without encoding it.
+	 *
+	 * @param frequencies frequency of each symbol of the input
+	 * @return amount of bits of the encoded input
+	 * @throws IllegalArgumentException if a symbol of the input has no code
+	 */
+	public long encodedSize(FrequencyTable frequencies) {
+		int[] counts = frequencies.counts();
+		long result = 0;
+		for (int symbol = 0; symbol < counts.length; symbol++) {
+			if (counts[symbol] == 0)
+				continue;
+			if (!contains(symbol))
+				throw new IllegalArgumentException("Symbol has no code: " + symbol);
+			result += (long) counts[symbol] * lengths[symbol];
+		}
+		return result;
+	}
+
+	/**
+	 * Encodes every character of the input, appending the codes to the sink.
+	 * Runs in time linear to the length of the input.
+	 *
+	 * @param input characters to encode
+	 * @param sink  where the codes are appended to
+	 */
+	public void encode(CharSequence input, BitSink sink) {
+		encode(input, 0, input.length(), sink);
+	}
+
+	/**
+	 * Encodes the characters from {@code start} (inclusive) to {@code end}
+	 * (exclusive) of the input, appending the codes to the sink.
+	 *
+	 * @param input characters to encode
+	 * @param start position of the first character to encode
+	 * @param end   position after the last character to encode
+	 * @param sink  where the codes are appended to
+	 */
+	public void encode(CharSequence input, int start, int end, BitSink sink) {
+		long[] codes = this.codes;
+		byte[] lengths = this.lengths;
+		for (int i = start; i < end; i++) {
+			char c = input.charAt(i);
+			int length = c < lengths.length ? lengths[c] : 0;
+			if (length == 0)
+				throw new IllegalArgumentException("Symbol has no code: " + c);
+			sink.append(codes[c], length);
+		}
+	}
+
+	/**
+	 * Encodes the remaining bytes of the buffer as symbols 0 to 255, appending
+	 * the codes to the sink. The position of the buffer is not changed.
+	 *
+	 * @param input bytes to encode
+	 * @param sink  where the codes are appended to
+	 */
+	public void encode(ByteBuffer input, BitSink sink) {
+		long[] codes = this.codes;
+		byte[] lengths = this.lengths;
+		int end = input.limit();
+		for (int i = input.position(); i < end; i++) {
+			int b = input.get(i) & 0xFF;
+			int length = b < lengths.length ? lengths[b] : 0;
+			if (length == 0)
+				throw new IllegalArgumentException("Symbol has no code: " + b);
+			sink.append(codes[b], length);
+		}
+	}
+
+	/**
+	 * Builds the code map used by the original API, where every key is a one
+	 * character symbol and every value a string of '0' and '1'.
+	 *
+	 * @return Map with the code of each symbol in the table
+	 */
+	public Map<String, String> toMap() {
+		Map<String, String> result = new HashTableOA<String, String>();
+		for (int symbol = 0; symbol < lengths.length; symbol++)
+			if (lengths[symbol] != 0)
+				result.put(String.valueOf((char) symbol), codeString(symbol));
+		return result;
+	}
+
+	/**
+	 * Returns the code of a symbol as a string of '0' and '1', for printing
+	 *
+	 * @param symbol symbol to look for
+	 * @return the code of the symbol, null if it doesn't have one
+	 */
+	public String codeString(int symbol) {
+		int length = getLength(symbol);
+		if (length == 0)
+			return null;
+		StringBuilder result = new StringBuilder(length);
+		for (int i = length - 1; i >= 0; i--)
+			result.append((codes[symbol] >>> i & 1) == 1 ? '1' : '0');
+		return result.toString();
+	}
+}
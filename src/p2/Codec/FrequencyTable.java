@@ -0,0 +1,364 @@
+package p2.Codec;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import p2.DataStructures.Map.HashTableOA;
+import p2.DataStructures.Map.Map;
+
+/**
+ * Frequency distribution of symbols stored in a flat {@code int} array indexed
+ * by the symbol itself.
+ *
+ * Counting a character is a single array increment, with no strings, boxing
+ * or hashing involved. For chars the table has 65536 entries, for bytes 256.
+ * The {@code Map} used by the original API is only built when
+ * {@link #toMap()} is called.
+ *
+ * Counts are stored as {@code int}, so a single symbol can appear at most
+ * {@code Integer.MAX_VALUE} times. Counting it more times throws an
+ * {@code ArithmeticException} and leaves the table as it was.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class FrequencyTable {
+
+	public static final int CHAR_ALPHABET = 1 << 16;
+	public static final int BYTE_ALPHABET = 1 << 8;
+
+	/* Inputs shorter than this are always counted by a single thread */
+	public static final int PARALLEL_THRESHOLD = 1 << 20;
+	/* Smallest piece of the input counted by a single task */
+	private static final int MIN_SEGMENT = 1 << 18;
+
+	/**
+	 * Counts one segment of the input, splitting it in halves while it is
+	 * larger than the segment size. Every segment gets its own table, and the
+	 * tables are merged as the tasks are joined. The input is either chars or
+	 * bytes.
+	 */
+	@SuppressWarnings("serial")
+	private static class CountTask extends RecursiveTask<FrequencyTable> {
+		private CharSequence chars;
+		private ByteBuffer bytes;
+		private int start, end, segmentSize;
+
+		public CountTask(CharSequence chars, ByteBuffer bytes, int start, int end, int segmentSize) {
+			this.chars = chars;
+			this.bytes = bytes;
+			this.start = start;
+			this.end = end;
+			this.segmentSize = segmentSize;
+		}
+
+		@Override
+		protected FrequencyTable compute() {
+			if (end - start <= segmentSize) {
+				FrequencyTable result;
+				if (chars != null) {
+					result = new FrequencyTable();
+					result.add(chars, start, end);
+				} else {
+					result = new FrequencyTable(BYTE_ALPHABET);
+					result.add(bytes.duplicate().limit(end).position(start));
+				}
+				return result;
+			}
+			int middle = start + (end - start) / 2;
+			CountTask left = new CountTask(chars, bytes, start, middle, segmentSize);
+			left.fork(); // Left half runs in another thread
+			FrequencyTable result = new CountTask(chars, bytes, middle, end, segmentSize).compute();
+			result.merge(left.join());
+			return result;
+		}
+	}
+
+	// private fields
+	private int[] counts;
+	private long total;
+
+	/**
+	 * Creates an empty table for symbols 0 up to {@code alphabetSize - 1}
+	 *
+	 * @param alphabetSize amount of different symbols the table can count
+	 */
+	public FrequencyTable(int alphabetSize) {
+		if (alphabetSize < 1)
+			throw new IllegalArgumentException("Alphabet size must be at least 1.");
+		this.counts = new int[alphabetSize];
+		this.total = 0;
+	}
+
+	/**
+	 * Creates an empty table able to count every char
+	 */
+	public FrequencyTable() {
+		this(CHAR_ALPHABET);
+	}
+
+	/**
+	 * Counts every character of the input
+	 *
+	 * @param input characters to count
+	 */
+	public void add(CharSequence input) {
+		add(input, 0, input.length());
+	}
+
+	/**
+	 * Counts the characters from {@code start} (inclusive) to {@code end}
+	 * (exclusive) of the input
+	 *
+	 * @param input characters to count
+	 * @param start position of the first character to count
+	 * @param end   position after the last character to count
+	 * @throws ArithmeticException if the count of a character overflows an
+	 *                             {@code int}
+	 */
+	public void add(CharSequence input, int start, int end) {
+		if (counts.length < CHAR_ALPHABET)
+			throw new IllegalStateException("Table is too small to count chars.");
+		count(input, start, end, 1);
+		if (mayOverflow(end - start) && hasOverflow()) {
+			count(input, start, end, -1);
+			throw new ArithmeticException("Count of a character overflows an int.");
+		}
+		total += end - start;
+	}
+
+	private void count(CharSequence input, int start, int end, int delta) {
+		int[] counts = this.counts;
+		for (int i = start; i < end; i++)
+			counts[input.charAt(i)] += delta;
+	}
+
+	/**
+	 * Counts the remaining bytes of the buffer as symbols 0 to 255, without
+	 * changing its position. Works on any buffer, memory mapped files included,
+	 * and no bytes are copied or decoded.
+	 *
+	 * @param input bytes to count
+	 * @throws ArithmeticException if the count of a byte overflows an
+	 *                             {@code int}
+	 */
+	public void add(ByteBuffer input) {
+		if (counts.length < BYTE_ALPHABET)
+			throw new IllegalStateException("Table is too small to count bytes.");
+		count(input, 1);
+		if (mayOverflow(input.remaining()) && hasOverflow()) {
+			count(input, -1);
+			throw new ArithmeticException("Count of a byte overflows an int.");
+		}
+		total += input.remaining();
+	}
+
+	private void count(ByteBuffer input, int delta) {
+		int[] counts = this.counts;
+		int end = input.limit();
+		if (input.hasArray()) {
+			byte[] array = input.array();
+			for (int i = input.arrayOffset() + input.position(); i < input.arrayOffset() + end; i++)
+				counts[array[i] & 0xFF] += delta;
+		} else {
+			for (int i = input.position(); i < end; i++)
+				counts[input.get(i) & 0xFF] += delta;
+		}
+	}
+
+	/*
+	 * No count can be larger than the total, so the counts can only overflow once
+	 * the total passes Integer.MAX_VALUE. Until then the bulk counts are not
+	 * checked at all.
+	 */
+	private boolean mayOverflow(int added) {
+		return total + added > Integer.MAX_VALUE;
+	}
+
+	/*
+	 * A single call adds at most Integer.MAX_VALUE to a count, so a count that
+	 * overflowed wrapped around once and is now negative. Subtracting the same
+	 * input again wraps it back.
+	 */
+	private boolean hasOverflow() {
+		for (int count : counts)
+			if (count < 0)
+				return true;
+		return false;
+	}
+
+	/**
+	 * Counts every character of the input, splitting the work between the threads
+	 * of the given pool when the input is at least {@link #PARALLEL_THRESHOLD}
+	 * characters long. Smaller inputs, or any input when the pool only has one
+	 * thread, are counted by the calling thread.
+	 *
+	 * The input must not change while it is being counted.
+	 *
+	 * @param input characters to count
+	 * @param pool  pool that runs the counting tasks
+	 * @return table with the frequency of each character of the input
+	 */
+	public static FrequencyTable countParallel(CharSequence input, ForkJoinPool pool) {
+		if (input.length() < PARALLEL_THRESHOLD || pool.getParallelism() == 1) {
+			FrequencyTable result = new FrequencyTable();
+			result.add(input);
+			return result;
+		}
+		/* A few segments per thread, so a slow thread doesn't hold everyone back */
+		int segmentSize = Math.max(MIN_SEGMENT, input.length() / (4 * pool.getParallelism()));
+		return pool.invoke(new CountTask(input, null, 0, input.length(), segmentSize));
+	}
+
+	/**
+	 * Same as {@link #countParallel(CharSequence, ForkJoinPool)} using the common
+	 * pool.
+	 *
+	 * @param input characters to count
+	 * @return table with the frequency of each character of the input
+	 */
+	public static FrequencyTable countParallel(CharSequence input) {
+		return countParallel(input, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Counts the remaining bytes of the buffer into a table of the byte alphabet,
+	 * splitting the work like {@link #countParallel(CharSequence, ForkJoinPool)}
+	 * does. The position of the buffer is not changed.
+	 *
+	 * @param input bytes to count
+	 * @param pool  pool that runs the counting tasks
+	 * @return table with the frequency of each byte of the input
+	 */
+	public static FrequencyTable countParallel(ByteBuffer input, ForkJoinPool pool) {
+		if (input.remaining() < PARALLEL_THRESHOLD || pool.getParallelism() == 1) {
+			FrequencyTable result = new FrequencyTable(BYTE_ALPHABET);
+			result.add(input);
+			return result;
+		}
+		int segmentSize = Math.max(MIN_SEGMENT, input.remaining() / (4 * pool.getParallelism()));
+		return pool.invoke(new CountTask(null, input, input.position(), input.limit(), segmentSize));
+	}
+
+	public static FrequencyTable countParallel(ByteBuffer input) {
+		return countParallel(input, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Adds {@code count} occurrences of a symbol
+	 *
+	 * @param symbol symbol to count
+	 * @param count  amount of occurrences to add, not negative
+	 * @throws ArithmeticException if the count of the symbol overflows an
+	 *                             {@code int}
+	 */
+	public void add(int symbol, int count) {
+		if (symbol < 0 || symbol >= counts.length)
+			throw new IndexOutOfBoundsException("Symbol out of range: " + symbol);
+		if (count < 0)
+			throw new IllegalArgumentException("Count must not be negative.");
+		counts[symbol] = Math.addExact(counts[symbol], count);
+		total += count;
+	}
+
+	/**
+	 * Adds every count of another table to this one
+	 *
+	 * @param other table to merge into this one
+	 * @throws ArithmeticException if the count of a symbol overflows an
+	 *                             {@code int}
+	 */
+	public void merge(FrequencyTable other) {
+		if (other.counts.length > counts.length)
+			throw new IllegalArgumentException("Alphabet of the other table is larger.");
+		if (total + other.total > Integer.MAX_VALUE) // Checks every sum before changing anything
+			for (int i = 0; i < other.counts.length; i++)
+				Math.addExact(counts[i], other.counts[i]);
+		for (int i = 0; i < other.counts.length; i++)
+			counts[i] += other.counts[i];
+		total += other.total;
+	}
+
+	/**
+	 * @param symbol symbol to look for
+	 * @return amount of times the symbol was counted
+	 */
+	public int get(int symbol) {
+		return symbol >= 0 && symbol < counts.length ? counts[symbol] : 0;
+	}
+
+	/**
+	 * @return amount of different symbols counted at least once
+	 */
+	public int distinctSymbols() {
+		int result = 0;
+		for (int count : counts)
+			if (count != 0)
+				result++;
+		return result;
+	}
+
+	/**
+	 * @return amount of symbols counted in total
+	 */
+	public long total() {
+		return total;
+	}
+
+	/**
+	 * @return amount of different symbols the table can count
+	 */
+	public int alphabetSize() {
+		return counts.length;
+	}
+
+	/**
+	 * Direct access to the counts, indexed by symbol
+	 *
+	 * @return the backing array of the table
+	 */
+	public int[] counts() {
+		return counts;
+	}
+
+	public boolean isEmpty() {
+		return total == 0;
+	}
+
+	public void clear() {
+		for (int i = 0; i < counts.length; i++)
+			counts[i] = 0;
+		total = 0;
+	}
+
+	/**
+	 * Builds the frequency distribution used by the original API, where every key
+	 * is a one character symbol.
+	 *
+	 * @return Map with the frequency of each symbol counted
+	 */
+	public Map<String, Integer> toMap() {
+		Map<String, Integer> result = new HashTableOA<String, Integer>();
+		for (int symbol = 0; symbol < counts.length; symbol++)
+			if (counts[symbol] != 0)
+				result.put(String.valueOf((char) symbol), counts[symbol]);
+		return result;
+	}
+
+	/**
+	 * Builds a table from a frequency distribution of the original API, where
+	 * every key is a one character symbol.
+	 *
+	 * @param fD Map with the frequency of each symbol
+	 * @return table with the same frequencies
+	 */
+	public static FrequencyTable fromMap(Map<String, Integer> fD) {
+		FrequencyTable result = new FrequencyTable();
+		fD.forEach((symbol, count) -> {
+			if (symbol.length() != 1)
+				throw new IllegalArgumentException("Symbols must be a single character: " + symbol);
+			result.add(symbol.charAt(0), count);
+		});
+		return result;
+	}
+}
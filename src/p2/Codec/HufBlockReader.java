@@ -0,0 +1,297 @@
+package p2.Codec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Random access reader for block mode .huf files (see {@code HufFormat}).
+ *
+ * Only the index is read when the file is opened. Blocks are read and decoded
+ * on demand, so a range of the original data can be decoded without touching
+ * the rest of the file, and many blocks can be decoded in parallel. Files of
+ * the char alphabet are decoded into Strings, and files of the byte alphabet
+ * into byte buffers.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class HufBlockReader implements Closeable {
+
+	/* What to do with every block of a range */
+	private interface BlockAction {
+		void run(int block) throws IOException;
+	}
+
+	/**
+	 * Runs the action for a range of blocks, splitting it in halves while it has
+	 * more than one block
+	 */
+	@SuppressWarnings("serial")
+	private static class DecodeTask extends RecursiveAction {
+		private int firstBlock, lastBlock;
+		private BlockAction action;
+
+		public DecodeTask(int firstBlock, int lastBlock, BlockAction action) {
+			this.firstBlock = firstBlock;
+			this.lastBlock = lastBlock;
+			this.action = action;
+		}
+
+		@Override
+		protected void compute() {
+			if (lastBlock - firstBlock == 1) {
+				try {
+					action.run(firstBlock);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				return;
+			}
+			int middle = firstBlock + (lastBlock - firstBlock) / 2;
+			invokeAll(new DecodeTask(firstBlock, middle, action), new DecodeTask(middle, lastBlock, action));
+		}
+	}
+
+	// private fields
+	private FileChannel channel;
+	private HufFormat.BlockIndex index;
+
+	/**
+	 * Opens a block mode file and reads its index
+	 *
+	 * @param file the .huf file
+	 * @throws IOException if the file cannot be read or is not a valid block mode
+	 *                     file
+	 */
+	public HufBlockReader(Path file) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			this.index = HufFormat.readBlockIndex(channel);
+		} catch (IllegalArgumentException e) {
+			channel.close();
+			throw new IOException("Invalid .huf file: " + e.getMessage(), e);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @param file any file
+	 * @return true if the file starts like a block mode .huf file
+	 * @throws IOException if the file cannot be read
+	 */
+	public static boolean isBlockFile(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer start = ByteBuffer.allocate(5);
+			while (start.hasRemaining() && channel.read(start) != -1)
+				;
+			return !start.hasRemaining() && start.getInt(0) == HufFormat.MAGIC
+					&& start.get(4) == HufFormat.VERSION_BLOCKS;
+		}
+	}
+
+	public HufFormat.BlockIndex index() {
+		return index;
+	}
+
+	public int blockCount() {
+		return index.blockCount();
+	}
+
+	/**
+	 * @return amount of symbols in the original data
+	 */
+	public long symbolCount() {
+		return index.symbolCount();
+	}
+
+	/**
+	 * Reads a block from the file, without decoding it
+	 *
+	 * @param block index of the block
+	 * @return the encoded block
+	 * @throws IOException if the file cannot be read or the block is not valid
+	 */
+	public HuffmanBlock readBlock(int block) throws IOException {
+		HufFormat.BlockEntry entry = index.entry(block);
+		try {
+			ByteBuffer in = HufFormat.readFully(channel, entry.offset(), index.blockLength(block));
+			int[] codeLengths = CanonicalCode.readLengths(in);
+			if (in.remaining() != entry.payloadSize())
+				throw new IllegalArgumentException("Payload size of block " + block + " does not match the index.");
+			HufFormat.checkPadding(in, entry.bitCount());
+			BitBuffer bits = BitBuffer.fromByteBuffer(in, entry.bitCount());
+			return new HuffmanBlock(entry.symbolCount(), codeLengths, bits, entry.checksum());
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid .huf file: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Reads and decodes a single block. Only that block is read from the file.
+	 *
+	 * @param block index of the block
+	 * @return the original characters of the block
+	 * @throws IOException if the file cannot be read or the block is not valid
+	 */
+	public String decodeBlock(int block) throws IOException {
+		checkAlphabet(HufFormat.ALPHABET_CHAR);
+		HuffmanBlock encoded = readBlock(block);
+		try {
+			return encoded.decode();
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid .huf file: block " + block + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Decodes the blocks from {@code firstBlock} (inclusive) to
+	 * {@code lastBlock} (exclusive) in parallel with the threads of the pool
+	 *
+	 * @param firstBlock index of the first block to decode
+	 * @param lastBlock  index after the last block to decode
+	 * @param pool       pool that runs the decoding tasks
+	 * @return the original characters of every block, in order
+	 * @throws IOException if the file cannot be read or a block is not valid
+	 */
+	public String[] decodeBlocks(int firstBlock, int lastBlock, ForkJoinPool pool) throws IOException {
+		if (firstBlock < 0 || lastBlock > blockCount() || firstBlock > lastBlock)
+			throw new IndexOutOfBoundsException();
+		String[] result = new String[lastBlock - firstBlock];
+		forEachBlock(firstBlock, lastBlock, pool, block -> result[block - firstBlock] = decodeBlock(block));
+		return result;
+	}
+
+	/* Runs the action for every block of the range, in parallel when there are many */
+	private void forEachBlock(int firstBlock, int lastBlock, ForkJoinPool pool, BlockAction action)
+			throws IOException {
+		if (lastBlock - firstBlock == 1 || pool.getParallelism() == 1) {
+			for (int i = firstBlock; i < lastBlock; i++)
+				action.run(i);
+		} else if (lastBlock - firstBlock > 1) {
+			try {
+				pool.invoke(new DecodeTask(firstBlock, lastBlock, action));
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+	/**
+	 * Reads and decodes a single block of a byte alphabet file. Only that block
+	 * is read from the file.
+	 *
+	 * @param block  index of the block
+	 * @param result where the original bytes of the block are put, from its
+	 *               current position
+	 * @throws IOException if the file cannot be read or the block is not valid
+	 */
+	public void decodeBlock(int block, ByteBuffer result) throws IOException {
+		checkAlphabet(HufFormat.ALPHABET_BYTE);
+		HuffmanBlock encoded = readBlock(block);
+		try {
+			encoded.decode(result);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid .huf file: block " + block + ": " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Decodes every block of a byte alphabet file in parallel with the threads of
+	 * the pool, straight into the output file. Every block is decoded into a
+	 * memory mapped region of the output at the position of its first byte, so
+	 * the blocks don't need to wait for each other.
+	 *
+	 * @param output channel of the output file, opened for reading and writing
+	 * @param pool   pool that runs the decoding tasks
+	 * @throws IOException if a file cannot be read or written, or a block is not
+	 *                     valid
+	 */
+	public void decodeAll(FileChannel output, ForkJoinPool pool) throws IOException {
+		checkAlphabet(HufFormat.ALPHABET_BYTE);
+		/* Sizes the output once, so the regions don't grow the file from many threads */
+		if (output.size() < symbolCount())
+			output.write(ByteBuffer.allocate(1), symbolCount() - 1);
+		forEachBlock(0, blockCount(), pool, block -> {
+			MappedByteBuffer region = output.map(FileChannel.MapMode.READ_WRITE, index.firstSymbol(block),
+					index.entry(block).symbolCount());
+			decodeBlock(block, region);
+		});
+	}
+
+	/**
+	 * Decodes the bytes from {@code start} (inclusive) to {@code end} (exclusive)
+	 * of the original data of a byte alphabet file. Only the blocks that hold
+	 * them are read and decoded.
+	 *
+	 * @param start position of the first byte
+	 * @param end   position after the last byte
+	 * @return the bytes of the original data in the range
+	 * @throws IOException              if the file cannot be read or a block is
+	 *                                  not valid
+	 * @throws IllegalArgumentException if the blocks that hold the range don't
+	 *                                  fit in an array
+	 */
+	public byte[] readBytes(long start, long end) throws IOException {
+		if (start < 0 || end > symbolCount() || start > end || end - start > Integer.MAX_VALUE - 8)
+			throw new IndexOutOfBoundsException();
+		if (start == end)
+			return new byte[0];
+		int firstBlock = index.findBlock(start);
+		int lastBlock = index.findBlock(end - 1) + 1;
+		long firstSymbol = index.firstSymbol(firstBlock);
+		/* Whole blocks are decoded, so the buffer can be up to two blocks longer than the range */
+		long span = index.firstSymbol(lastBlock) - firstSymbol;
+		if (span > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("Blocks of the range are too large to decode in memory.");
+		ByteBuffer blocks = ByteBuffer.allocate((int) span);
+		forEachBlock(firstBlock, lastBlock, ForkJoinPool.commonPool(), block -> decodeBlock(block,
+				blocks.duplicate().position((int) (index.firstSymbol(block) - firstSymbol))));
+		byte[] result = new byte[(int) (end - start)];
+		blocks.get((int) (start - firstSymbol), result);
+		return result;
+	}
+
+	private void checkAlphabet(int alphabet) {
+		if (index.alphabet() != alphabet)
+			throw new IllegalStateException(alphabet == HufFormat.ALPHABET_CHAR ? "File holds bytes, not text."
+					: "File holds text, not bytes.");
+	}
+
+	/**
+	 * Decodes the characters from {@code start} (inclusive) to {@code end}
+	 * (exclusive) of the original data. Only the blocks that hold them are read
+	 * and decoded.
+	 *
+	 * @param start position of the first character
+	 * @param end   position after the last character
+	 * @return the characters of the original data in the range
+	 * @throws IOException if the file cannot be read or a block is not valid
+	 */
+	public String read(long start, long end) throws IOException {
+		if (start < 0 || end > symbolCount() || start > end)
+			throw new IndexOutOfBoundsException();
+		if (start == end)
+			return "";
+		int firstBlock = index.findBlock(start);
+		int lastBlock = index.findBlock(end - 1) + 1;
+		StringBuilder result = new StringBuilder((int) Math.min(end - start, Integer.MAX_VALUE - 8));
+		for (String text : decodeBlocks(firstBlock, lastBlock, ForkJoinPool.commonPool()))
+			result.append(text);
+		int offset = (int) (start - index.firstSymbol(firstBlock));
+		return result.substring(offset, offset + (int) (end - start));
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
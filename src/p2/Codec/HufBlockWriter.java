@@ -0,0 +1,103 @@
+package p2.Codec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import p2.DataStructures.List.ArrayList;
+import p2.DataStructures.List.List;
+
+/**
+ * Writes encoded blocks to a block mode .huf file (see {@code HufFormat}).
+ *
+ * The header is written when the writer is created, every block is appended
+ * as soon as it is written, and the index of the blocks is written by
+ * {@link #finish()}. Only the index entries are kept in memory, so files of
+ * any size can be written.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class HufBlockWriter {
+
+	/* Most symbols a block can have, so every block fits in a byte array */
+	public static final int MAX_BLOCK_SIZE = 1 << 24;
+
+	// private fields
+	private WritableByteChannel channel;
+	private int blockSize;
+	private byte[] header;
+	private List<HufFormat.BlockEntry> entries;
+	private long position;
+	private boolean finished;
+
+	/**
+	 * Starts a block mode file, the channel must be at the start of the file
+	 *
+	 * @param channel   where the file is written
+	 * @param alphabet  type of the symbols
+	 * @param blockSize most symbols a block can have
+	 * @throws IOException if writing to the channel fails
+	 */
+	public HufBlockWriter(WritableByteChannel channel, int alphabet, int blockSize) throws IOException {
+		if (blockSize < 1 || blockSize > MAX_BLOCK_SIZE)
+			throw new IllegalArgumentException("Block size must be between 1 and " + MAX_BLOCK_SIZE + ".");
+		this.channel = channel;
+		this.blockSize = blockSize;
+		this.entries = new ArrayList<HufFormat.BlockEntry>();
+		this.position = 0;
+		this.finished = false;
+		this.header = HufFormat.writeBlockHeader(alphabet, blockSize);
+		write(header);
+	}
+
+	/**
+	 * Appends a block to the file. Blocks must be written in the order of the
+	 * original data.
+	 *
+	 * @param block the encoded block
+	 * @throws IOException if writing to the channel fails
+	 */
+	public void write(HuffmanBlock block) throws IOException {
+		if (finished)
+			throw new IllegalStateException("Writer is already finished.");
+		if (block.symbolCount() > blockSize)
+			throw new IllegalArgumentException("Block has more than " + blockSize + " symbols.");
+		entries.add(new HufFormat.BlockEntry(position, block.symbolCount(), block.bits().size(), block.checksum()));
+		write(CanonicalCode.writeLengths(block.codeLengths()));
+		write(block.bits().toByteArray());
+	}
+
+	/**
+	 * Writes the index of the blocks, which ends the file. No more blocks can be
+	 * written afterwards. The channel is not closed.
+	 *
+	 * @throws IOException if writing to the channel fails
+	 */
+	public void finish() throws IOException {
+		if (finished)
+			return;
+		write(HufFormat.writeIndex(header, entries, position));
+		finished = true;
+	}
+
+	/**
+	 * @return amount of blocks written so far
+	 */
+	public int blockCount() {
+		return entries.size();
+	}
+
+	/**
+	 * @return amount of bytes written to the channel so far
+	 */
+	public long bytesWritten() {
+		return position;
+	}
+
+	private void write(byte[] bytes) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		while (buffer.hasRemaining())
+			channel.write(buffer);
+		position += bytes.length;
+	}
+}
@@ -0,0 +1,512 @@
+package p2.Codec;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+import p2.DataStructures.List.List;
+
+/**
+ * The .huf container: a self-describing compressed file.
+ *
+ * A .huf file has everything needed to decode it. The code table is stored as
+ * the list of canonical code lengths (see {@code CanonicalCode}), followed by
+ * the packed bits and a checksum of the original symbols. All numbers are big
+ * endian.
+ *
+ * <pre>
+ * magic          4 bytes   'H' 'U' 'F' 0x1A
+ * version        1 byte    1
+ * alphabet       1 byte    0 = chars of UTF-8 text, 1 = bytes
+ * symbolCount    8 bytes   amount of symbols in the original data
+ * bitCount       8 bytes   amount of bits in the payload
+ * code lengths   CanonicalCode header
+ * payload        (bitCount + 7) / 8 bytes, the last one padded with zeros
+ * checksum       4 bytes   CRC32 of the original symbols
+ * </pre>
+ *
+ * For the char alphabet the checksum covers every char as two big endian
+ * bytes (UTF-16BE), for the byte alphabet the bytes themselves.
+ *
+ * Version 2 files are split in blocks that are decoded independently (see
+ * {@code HuffmanBlock}). Each block has its own code lengths and checksum,
+ * and an index at the end of the file tells where every block starts, so
+ * blocks can be decoded in parallel or one at a time.
+ *
+ * <pre>
+ * magic          4 bytes   'H' 'U' 'F' 0x1A
+ * version        1 byte    2
+ * alphabet       1 byte    0 = chars of UTF-8 text, 1 = bytes
+ * blockSize      4 bytes   most symbols a block can have
+ * blocks         for each block: code lengths, then the payload
+ * index          for each block: offset (8), symbolCount (4), bitCount (8),
+ *                checksum (4)
+ * footer         blockCount (4), indexOffset (8), symbolCount (8),
+ *                indexChecksum (4), magic (4)
+ * </pre>
+ *
+ * Offsets are counted from the start of the file. The index checksum is the
+ * CRC32 of the header, the index and the footer before it, so together with
+ * the checksum of every block the whole file is covered.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class HufFormat {
+
+	public static final int MAGIC = 0x4855461A; // "HUF" and the DOS end of file character
+	public static final int VERSION = 1;
+	public static final int VERSION_BLOCKS = 2;
+	public static final int ALPHABET_CHAR = 0;
+	public static final int ALPHABET_BYTE = 1;
+	public static final String EXTENSION = ".huf";
+
+	/* magic, version, alphabet, symbolCount and bitCount */
+	private static final int FIXED_HEADER_SIZE = 4 + 1 + 1 + 8 + 8;
+	public static final int TRAILER_SIZE = 4;
+	/* magic, version, alphabet and blockSize */
+	public static final int BLOCK_HEADER_SIZE = 4 + 1 + 1 + 4;
+	public static final int INDEX_ENTRY_SIZE = 8 + 4 + 8 + 4;
+	public static final int FOOTER_SIZE = 4 + 8 + 8 + 4 + 4;
+
+	/**
+	 * Everything stored in a .huf file before the payload
+	 */
+	public static class Header {
+		private int alphabet;
+		private long symbolCount;
+		private long bitCount;
+		private int[] codeLengths;
+
+		public Header(int alphabet, long symbolCount, long bitCount, int[] codeLengths) {
+			if (alphabet != ALPHABET_CHAR && alphabet != ALPHABET_BYTE)
+				throw new IllegalArgumentException("Unknown alphabet: " + alphabet);
+			if (symbolCount < 0 || bitCount < 0)
+				throw new IllegalArgumentException("Sizes cannot be negative.");
+			this.alphabet = alphabet;
+			this.symbolCount = symbolCount;
+			this.bitCount = bitCount;
+			this.codeLengths = codeLengths;
+		}
+
+		public int alphabet() {
+			return alphabet;
+		}
+
+		public long symbolCount() {
+			return symbolCount;
+		}
+
+		public long bitCount() {
+			return bitCount;
+		}
+
+		/**
+		 * @return amount of bytes of the payload
+		 */
+		public long payloadSize() {
+			return (bitCount + 7) >>> 3;
+		}
+
+		/**
+		 * @return code length of each symbol, indexed by symbol
+		 */
+		public int[] codeLengths() {
+			return codeLengths;
+		}
+
+		/**
+		 * @return the canonical codes described by the code lengths
+		 */
+		public CodeTable codeTable() {
+			return CanonicalCode.assign(codeLengths);
+		}
+	}
+
+	/**
+	 * Index entry of a block: where it starts and what is needed to decode it
+	 */
+	public static class BlockEntry {
+		private long offset;
+		private int symbolCount;
+		private long bitCount;
+		private int checksum;
+
+		public BlockEntry(long offset, int symbolCount, long bitCount, int checksum) {
+			if (offset < 0 || symbolCount < 0 || bitCount < 0)
+				throw new IllegalArgumentException("Sizes cannot be negative.");
+			this.offset = offset;
+			this.symbolCount = symbolCount;
+			this.bitCount = bitCount;
+			this.checksum = checksum;
+		}
+
+		/**
+		 * @return position of the block in the file
+		 */
+		public long offset() {
+			return offset;
+		}
+
+		public int symbolCount() {
+			return symbolCount;
+		}
+
+		public long bitCount() {
+			return bitCount;
+		}
+
+		public int checksum() {
+			return checksum;
+		}
+
+		/**
+		 * @return amount of bytes of the payload of the block
+		 */
+		public long payloadSize() {
+			return (bitCount + 7) >>> 3;
+		}
+	}
+
+	/**
+	 * Index of a block mode file
+	 */
+	public static class BlockIndex {
+		private int alphabet;
+		private int blockSize;
+		private BlockEntry[] entries;
+		private long[] firstSymbol; // Position of the first symbol of every block in the original data
+		private long indexOffset;
+		private long symbolCount;
+
+		public BlockIndex(int alphabet, int blockSize, BlockEntry[] entries, long indexOffset, long symbolCount) {
+			this.alphabet = alphabet;
+			this.blockSize = blockSize;
+			this.entries = entries;
+			this.indexOffset = indexOffset;
+			this.symbolCount = symbolCount;
+			this.firstSymbol = new long[entries.length + 1];
+			for (int i = 0; i < entries.length; i++)
+				firstSymbol[i + 1] = firstSymbol[i] + entries[i].symbolCount;
+		}
+
+		public int alphabet() {
+			return alphabet;
+		}
+
+		public int blockSize() {
+			return blockSize;
+		}
+
+		public int blockCount() {
+			return entries.length;
+		}
+
+		public long symbolCount() {
+			return symbolCount;
+		}
+
+		public BlockEntry entry(int block) {
+			return entries[block];
+		}
+
+		/**
+		 * @return amount of bytes of the block in the file, code lengths included
+		 */
+		public int blockLength(int block) {
+			long end = block + 1 < entries.length ? entries[block + 1].offset : indexOffset;
+			return (int) Math.min(end - entries[block].offset, Integer.MAX_VALUE);
+		}
+
+		/**
+		 * @return position of the first symbol of the block in the original data
+		 */
+		public long firstSymbol(int block) {
+			return firstSymbol[block];
+		}
+
+		/**
+		 * Finds the block that holds a symbol of the original data
+		 *
+		 * @param position position of the symbol in the original data
+		 * @return index of the block with the symbol
+		 */
+		public int findBlock(long position) {
+			if (position < 0 || position >= symbolCount)
+				throw new IndexOutOfBoundsException("Position out of range: " + position);
+			/* Last block whose first symbol is not after the position */
+			int low = 0, high = entries.length - 1;
+			while (low < high) {
+				int middle = (low + high + 1) >>> 1;
+				if (firstSymbol[middle] <= position)
+					low = middle;
+				else
+					high = middle - 1;
+			}
+			return low;
+		}
+	}
+
+	/**
+	 * Computes the checksum of the original symbols while they are read or
+	 * decoded, one piece at a time
+	 */
+	public static class Checksum {
+		private CRC32 crc = new CRC32();
+		private ByteBuffer scratch = ByteBuffer.allocate(1 << 13);
+
+		/**
+		 * Adds chars to the checksum, two big endian bytes each. The position of
+		 * the sequence (if it is a buffer) is not changed.
+		 */
+		public void update(CharSequence chars) {
+			update(chars, 0, chars.length());
+		}
+
+		/**
+		 * Adds the chars from {@code start} (inclusive) to {@code end} (exclusive) to
+		 * the checksum
+		 */
+		public void update(CharSequence chars, int start, int end) {
+			for (int i = start; i < end; i++) {
+				if (scratch.remaining() < 2)
+					drain();
+				scratch.putChar(chars.charAt(i));
+			}
+			drain();
+		}
+
+		/**
+		 * Adds bytes to the checksum
+		 */
+		public void update(byte[] bytes, int offset, int length) {
+			crc.update(bytes, offset, length);
+		}
+
+		/**
+		 * Adds the remaining bytes of a buffer to the checksum, its position is not
+		 * changed
+		 */
+		public void update(ByteBuffer bytes) {
+			crc.update(bytes.duplicate());
+		}
+
+		private void drain() {
+			scratch.flip();
+			crc.update(scratch);
+			scratch.clear();
+		}
+
+		public int value() {
+			return (int) crc.getValue();
+		}
+	}
+
+	/**
+	 * @param header what to store
+	 * @return the bytes of the header, to be followed by the payload
+	 */
+	public static byte[] writeHeader(Header header) {
+		byte[] lengths = CanonicalCode.writeLengths(header.codeLengths);
+		ByteBuffer out = ByteBuffer.allocate(FIXED_HEADER_SIZE + lengths.length);
+		out.putInt(MAGIC);
+		out.put((byte) VERSION);
+		out.put((byte) header.alphabet);
+		out.putLong(header.symbolCount);
+		out.putLong(header.bitCount);
+		out.put(lengths);
+		return out.array();
+	}
+
+	/**
+	 * Reads a header written by {@link #writeHeader(Header)}, starting at the
+	 * current position of the buffer. The position is left at the payload.
+	 *
+	 * @param in buffer with the file
+	 * @return the header
+	 * @throws IllegalArgumentException if the buffer doesn't start with a valid
+	 *                                  header
+	 */
+	public static Header readHeader(ByteBuffer in) {
+		try {
+			if (in.getInt() != MAGIC)
+				throw new IllegalArgumentException("Not a .huf file.");
+			int version = in.get() & 0xFF;
+			if (version != VERSION)
+				throw new IllegalArgumentException("Unsupported version: " + version);
+			int alphabet = in.get() & 0xFF;
+			long symbolCount = in.getLong();
+			long bitCount = in.getLong();
+			int[] codeLengths = CanonicalCode.readLengths(in);
+			if (alphabet == ALPHABET_BYTE && codeLengths.length > FrequencyTable.BYTE_ALPHABET)
+				throw new IllegalArgumentException("Invalid symbol in header.");
+			return new Header(alphabet, symbolCount, bitCount, codeLengths);
+		} catch (BufferUnderflowException e) {
+			throw new IllegalArgumentException("Header is truncated.");
+		}
+	}
+
+	/**
+	 * @param alphabet  type of the symbols
+	 * @param blockSize most symbols a block can have
+	 * @return the bytes that start a block mode file
+	 */
+	public static byte[] writeBlockHeader(int alphabet, int blockSize) {
+		if (alphabet != ALPHABET_CHAR && alphabet != ALPHABET_BYTE)
+			throw new IllegalArgumentException("Unknown alphabet: " + alphabet);
+		if (blockSize < 1)
+			throw new IllegalArgumentException("Block size must be at least 1.");
+		ByteBuffer out = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+		out.putInt(MAGIC);
+		out.put((byte) VERSION_BLOCKS);
+		out.put((byte) alphabet);
+		out.putInt(blockSize);
+		return out.array();
+	}
+
+	/**
+	 * Writes the index and the footer that end a block mode file
+	 *
+	 * @param header      the header written by
+	 *                    {@link #writeBlockHeader(int, int)}
+	 * @param entries     index entry of every block, in order
+	 * @param indexOffset position of the index in the file
+	 * @return the bytes that end the file
+	 */
+	public static byte[] writeIndex(byte[] header, List<BlockEntry> entries, long indexOffset) {
+		ByteBuffer out = ByteBuffer.allocate(entries.size() * INDEX_ENTRY_SIZE + FOOTER_SIZE);
+		long symbolCount = 0;
+		for (BlockEntry entry : entries) {
+			out.putLong(entry.offset);
+			out.putInt(entry.symbolCount);
+			out.putLong(entry.bitCount);
+			out.putInt(entry.checksum);
+			symbolCount += entry.symbolCount;
+		}
+		out.putInt(entries.size());
+		out.putLong(indexOffset);
+		out.putLong(symbolCount);
+		out.putInt(indexChecksum(ByteBuffer.wrap(header), out.duplicate().flip()));
+		out.putInt(MAGIC);
+		return out.array();
+	}
+
+	/**
+	 * Reads the header, the footer and the index of a block mode file. Every
+	 * entry is checked against the layout of the file: the blocks are in order,
+	 * end before the index and are large enough for their payload.
+	 *
+	 * @param channel the file
+	 * @return the index of the file
+	 * @throws IOException              if the file cannot be read
+	 * @throws IllegalArgumentException if the file is not a valid block mode file
+	 */
+	public static BlockIndex readBlockIndex(FileChannel channel) throws IOException {
+		long fileSize = channel.size();
+		if (fileSize < BLOCK_HEADER_SIZE + FOOTER_SIZE)
+			throw new IllegalArgumentException("File is truncated.");
+
+		ByteBuffer header = readFully(channel, 0, BLOCK_HEADER_SIZE);
+		if (header.getInt() != MAGIC)
+			throw new IllegalArgumentException("Not a .huf file.");
+		int version = header.get() & 0xFF;
+		if (version != VERSION_BLOCKS)
+			throw new IllegalArgumentException("Not a block mode file, version: " + version);
+		int alphabet = header.get() & 0xFF;
+		if (alphabet != ALPHABET_CHAR && alphabet != ALPHABET_BYTE)
+			throw new IllegalArgumentException("Unknown alphabet: " + alphabet);
+		int blockSize = header.getInt();
+		if (blockSize < 1)
+			throw new IllegalArgumentException("Invalid block size: " + blockSize);
+
+		ByteBuffer footer = readFully(channel, fileSize - FOOTER_SIZE, FOOTER_SIZE);
+		int blockCount = footer.getInt();
+		long indexOffset = footer.getLong();
+		long symbolCount = footer.getLong();
+		int indexChecksum = footer.getInt();
+		if (footer.getInt() != MAGIC)
+			throw new IllegalArgumentException("File is truncated.");
+		if (blockCount < 0 || indexOffset < BLOCK_HEADER_SIZE
+				|| indexOffset + (long) blockCount * INDEX_ENTRY_SIZE + FOOTER_SIZE != fileSize)
+			throw new IllegalArgumentException("Index size does not match the file.");
+
+		ByteBuffer index = readFully(channel, indexOffset, blockCount * INDEX_ENTRY_SIZE);
+		ByteBuffer indexAndFooter = ByteBuffer.allocate(index.remaining() + FOOTER_SIZE - 8);
+		indexAndFooter.put(index.duplicate()).put(footer.flip().limit(FOOTER_SIZE - 8)).flip();
+		if (indexChecksum(header.flip(), indexAndFooter) != indexChecksum)
+			throw new IllegalArgumentException("Checksum of the index does not match.");
+		BlockEntry[] entries = new BlockEntry[blockCount];
+		long expectedOffset = BLOCK_HEADER_SIZE;
+		long symbols = 0;
+		for (int i = 0; i < blockCount; i++) {
+			long offset = index.getLong();
+			int blockSymbols = index.getInt();
+			long bitCount = index.getLong();
+			int checksum = index.getInt();
+			if (offset != expectedOffset || blockSymbols < 0 || blockSymbols > blockSize || bitCount < blockSymbols)
+				throw new IllegalArgumentException("Invalid index entry for block " + i + ".");
+			entries[i] = new BlockEntry(offset, blockSymbols, bitCount, checksum);
+			symbols += blockSymbols;
+			/* The next block starts where this one ends, we only know that once we read it */
+			expectedOffset = i + 1 < blockCount ? index.getLong(index.position()) : indexOffset;
+			if (expectedOffset - offset <= entries[i].payloadSize() // The code lengths take at least one byte
+					|| expectedOffset - offset > Integer.MAX_VALUE - 8)
+				throw new IllegalArgumentException("Invalid index entry for block " + i + ".");
+		}
+		if (blockCount == 0 && indexOffset != BLOCK_HEADER_SIZE)
+			throw new IllegalArgumentException("Index size does not match the file.");
+		if (symbols != symbolCount)
+			throw new IllegalArgumentException("Symbol count does not match the index.");
+		return new BlockIndex(alphabet, blockSize, entries, indexOffset, symbolCount);
+	}
+
+	/* CRC32 of the header, the index and the footer up to the checksum */
+	private static int indexChecksum(ByteBuffer header, ByteBuffer indexAndFooter) {
+		CRC32 crc = new CRC32();
+		crc.update(header);
+		crc.update(indexAndFooter);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Reads {@code size} bytes of a file starting at {@code position}, without
+	 * changing the position of the channel. Many threads can read the same
+	 * channel at once this way.
+	 *
+	 * @throws IllegalArgumentException if the file ends before {@code size} bytes
+	 *                                  are read
+	 */
+	public static ByteBuffer readFully(FileChannel channel, long position, int size) throws IOException {
+		ByteBuffer result = ByteBuffer.allocate(size);
+		while (result.hasRemaining()) {
+			int read = channel.read(result, position + result.position());
+			if (read == -1)
+				throw new IllegalArgumentException("File is truncated.");
+		}
+		return result.flip();
+	}
+
+	/**
+	 * Checks that the padding bits after the last bit of a payload are zero, so
+	 * every bit of the file is either checked or covered by the checksum
+	 *
+	 * @param payload  buffer positioned at the start of the payload
+	 * @param bitCount amount of bits in the payload
+	 * @throws IllegalArgumentException if a padding bit is set
+	 */
+	public static void checkPadding(ByteBuffer payload, long bitCount) {
+		int padding = (int) (-bitCount & 7);
+		if (padding != 0
+				&& (payload.get(payload.position() + (int) ((bitCount - 1) >>> 3)) & ((1 << padding) - 1)) != 0)
+			throw new IllegalArgumentException("Padding bits are not zero.");
+	}
+
+	/**
+	 * @param checksum CRC32 of the original symbols
+	 * @return the bytes that end the file
+	 */
+	public static byte[] writeTrailer(int checksum) {
+		return ByteBuffer.allocate(TRAILER_SIZE).putInt(checksum).array();
+	}
+}
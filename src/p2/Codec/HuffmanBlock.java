@@ -0,0 +1,224 @@
+package p2.Codec;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * One independently decodable block of a block mode .huf file.
+ *
+ * Every block has its own Huffman code, built from the frequencies of the
+ * block alone, and its own checksum. Blocks hold either chars or bytes,
+ * depending on the alphabet of the file. A block can be encoded or decoded
+ * without looking at any other block, so blocks are encoded and decoded in
+ * parallel, and a reader can decode only the blocks it needs. Local codes also
+ * adapt to input whose frequencies change along the file.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class HuffmanBlock {
+
+	/**
+	 * Encodes a range of blocks, splitting it in halves while it has more than
+	 * one block
+	 */
+	@SuppressWarnings("serial")
+	private static class EncodeTask extends RecursiveAction {
+		private CharSequence input;
+		private int start, end, blockSize, firstBlock, lastBlock;
+		private HuffmanBlock[] result;
+
+		public EncodeTask(CharSequence input, int start, int end, int blockSize, int firstBlock, int lastBlock,
+				HuffmanBlock[] result) {
+			this.input = input;
+			this.start = start;
+			this.end = end;
+			this.blockSize = blockSize;
+			this.firstBlock = firstBlock;
+			this.lastBlock = lastBlock;
+			this.result = result;
+		}
+
+		@Override
+		protected void compute() {
+			if (lastBlock - firstBlock == 1) {
+				int blockStart = start + firstBlock * blockSize;
+				result[firstBlock] = encode(input, blockStart, Math.min(end, blockStart + blockSize));
+				return;
+			}
+			int middle = firstBlock + (lastBlock - firstBlock) / 2;
+			invokeAll(new EncodeTask(input, start, end, blockSize, firstBlock, middle, result),
+					new EncodeTask(input, start, end, blockSize, middle, lastBlock, result));
+		}
+	}
+
+	// private fields
+	private int symbolCount;
+	private int[] codeLengths;
+	private BitBuffer bits;
+	private int checksum;
+
+	/**
+	 * @param symbolCount amount of symbols in the block
+	 * @param codeLengths code length of each symbol, indexed by symbol
+	 * @param bits        packed bits of the block
+	 * @param checksum    CRC32 of the symbols of the block
+	 */
+	public HuffmanBlock(int symbolCount, int[] codeLengths, BitBuffer bits, int checksum) {
+		if (symbolCount < 0)
+			throw new IllegalArgumentException("Symbol count cannot be negative.");
+		this.symbolCount = symbolCount;
+		this.codeLengths = codeLengths;
+		this.bits = bits;
+		this.checksum = checksum;
+	}
+
+	/**
+	 * Encodes the characters from {@code start} (inclusive) to {@code end}
+	 * (exclusive) of the input as a block, with a canonical Huffman code built
+	 * from their frequencies
+	 *
+	 * @param input characters to encode
+	 * @param start position of the first character of the block
+	 * @param end   position after the last character of the block
+	 * @return the encoded block
+	 */
+	public static HuffmanBlock encode(CharSequence input, int start, int end) {
+		FrequencyTable frequencies = new FrequencyTable();
+		frequencies.add(input, start, end);
+		CodeTable codeTable = CanonicalCode.canonicalize(HuffmanTree.build(frequencies).codeTable());
+
+		BitBuffer bits = new BitBuffer((int) Math.max(1, (codeTable.encodedSize(frequencies) + 63) >>> 6));
+		codeTable.encode(input, start, end, bits);
+		HufFormat.Checksum checksum = new HufFormat.Checksum();
+		checksum.update(input, start, end);
+		return new HuffmanBlock(end - start, CanonicalCode.lengths(codeTable), bits, checksum.value());
+	}
+
+	/**
+	 * Encodes the remaining bytes of the buffer as a block of the byte alphabet,
+	 * with a canonical Huffman code built from their frequencies. The position
+	 * of the buffer is not changed.
+	 *
+	 * @param input bytes to encode
+	 * @return the encoded block
+	 */
+	public static HuffmanBlock encode(ByteBuffer input) {
+		FrequencyTable frequencies = new FrequencyTable(FrequencyTable.BYTE_ALPHABET);
+		frequencies.add(input);
+		CodeTable codeTable = CanonicalCode.canonicalize(HuffmanTree.build(frequencies).codeTable());
+
+		BitBuffer bits = new BitBuffer((int) Math.max(1, (codeTable.encodedSize(frequencies) + 63) >>> 6));
+		codeTable.encode(input, bits);
+		HufFormat.Checksum checksum = new HufFormat.Checksum();
+		checksum.update(input);
+		return new HuffmanBlock(input.remaining(), CanonicalCode.lengths(codeTable), bits, checksum.value());
+	}
+
+	/**
+	 * Splits the characters from {@code start} to {@code end} of the input in
+	 * blocks of {@code blockSize} characters (the last one may be shorter) and
+	 * encodes them in parallel with the threads of the pool.
+	 *
+	 * The input must not change while it is being encoded.
+	 *
+	 * @param input     characters to encode
+	 * @param start     position of the first character to encode
+	 * @param end       position after the last character to encode
+	 * @param blockSize amount of characters per block
+	 * @param pool      pool that runs the encoding tasks
+	 * @return the encoded blocks, in input order
+	 */
+	public static HuffmanBlock[] encodeAll(CharSequence input, int start, int end, int blockSize,
+			ForkJoinPool pool) {
+		if (blockSize < 1)
+			throw new IllegalArgumentException("Block size must be at least 1.");
+		int blockCount = (int) (((long) end - start + blockSize - 1) / blockSize);
+		HuffmanBlock[] result = new HuffmanBlock[blockCount];
+		if (blockCount == 1 || pool.getParallelism() == 1) {
+			for (int i = 0; i < blockCount; i++) {
+				int blockStart = start + i * blockSize;
+				result[i] = encode(input, blockStart, Math.min(end, blockStart + blockSize));
+			}
+		} else if (blockCount > 1)
+			pool.invoke(new EncodeTask(input, start, end, blockSize, 0, blockCount, result));
+		return result;
+	}
+
+	/**
+	 * Decodes the block and verifies its checksum
+	 *
+	 * @param result where the decoded characters are appended
+	 * @throws IllegalArgumentException if the bits are not valid for the code, or
+	 *                                  the decoded symbols don't match the
+	 *                                  symbol count or the checksum
+	 */
+	public void decode(StringBuilder result) {
+		int start = result.length();
+		if (symbolCount > 0)
+			new HuffmanDecoder(CanonicalCode.assign(codeLengths)).decode(bits, 0, bits.size(), result);
+		else if (!bits.isEmpty())
+			throw new IllegalArgumentException("Empty block has bits.");
+		if (result.length() - start != symbolCount)
+			throw new IllegalArgumentException("Symbol count of the block does not match.");
+
+		HufFormat.Checksum actual = new HufFormat.Checksum();
+		actual.update(result, start, result.length());
+		if (actual.value() != checksum)
+			throw new IllegalArgumentException("Checksum of the block does not match.");
+	}
+
+	/**
+	 * Decodes a block of the byte alphabet and verifies its checksum
+	 *
+	 * @param result where the decoded bytes are put, from its current position
+	 * @throws IllegalArgumentException if the bits are not valid for the code, or
+	 *                                  the decoded bytes don't match the symbol
+	 *                                  count or the checksum
+	 */
+	public void decode(ByteBuffer result) {
+		if (result.remaining() < symbolCount)
+			throw new IllegalArgumentException("Buffer is too small for the block.");
+		ByteBuffer target = result.slice().limit(symbolCount);
+		if (symbolCount > 0)
+			new HuffmanDecoder(CanonicalCode.assign(codeLengths)).decode(bits, 0, bits.size(), target);
+		else if (!bits.isEmpty())
+			throw new IllegalArgumentException("Empty block has bits.");
+		if (target.hasRemaining())
+			throw new IllegalArgumentException("Symbol count of the block does not match.");
+
+		HufFormat.Checksum actual = new HufFormat.Checksum();
+		actual.update(target.flip());
+		if (actual.value() != checksum)
+			throw new IllegalArgumentException("Checksum of the block does not match.");
+		result.position(result.position() + symbolCount);
+	}
+
+	/**
+	 * @return the decoded characters of the block
+	 */
+	public String decode() {
+		StringBuilder result = new StringBuilder(symbolCount);
+		decode(result);
+		return result.toString();
+	}
+
+	public int symbolCount() {
+		return symbolCount;
+	}
+
+	/**
+	 * @return code length of each symbol, indexed by symbol
+	 */
+	public int[] codeLengths() {
+		return codeLengths;
+	}
+
+	public BitBuffer bits() {
+		return bits;
+	}
+
+	public int checksum() {
+		return checksum;
+	}
+}
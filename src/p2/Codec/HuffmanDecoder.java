@@ -0,0 +1,295 @@
+package p2.Codec;
+
+import java.nio.ByteBuffer;
+
+import p2.DataStructures.Tree.BTNode;
+
+/**
+ * Table driven decoder for Huffman encoded bits.
+ *
+ * Instead of reading one bit at a time, the decoder peeks {@code tableBits}
+ * bits from the buffer and uses them as an index into a lookup table. For
+ * codes no longer than {@code tableBits} the table entry already holds the
+ * symbol and its code length, so a whole symbol is decoded with a single
+ * probe. Longer codes store the node of the code trie reached after
+ * {@code tableBits} bits, and the decoder walks the rest of the way bit by
+ * bit.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class HuffmanDecoder {
+
+	/* Bits used to index the lookup table when the codes are long enough */
+	public static final int DEFAULT_TABLE_BITS = 10;
+
+	/* Table entries pack the symbol and the code length: symbol << 7 | length */
+	private static final int LENGTH_BITS = 7;
+	private static final int LENGTH_MASK = (1 << LENGTH_BITS) - 1;
+	private static final int INVALID = 0; // No code starts with these bits
+
+	// private fields
+	private int tableBits;
+	private int[] table;
+	private int[] left, right, leafSymbol; // Code trie, node 0 is the root
+	private int symbolCount;
+
+	/**
+	 * Builds a decoder for the codes of the given table
+	 *
+	 * @param codeTable table with the code of each symbol
+	 * @param tableBits maximum amount of bits resolved with one table probe
+	 */
+	public HuffmanDecoder(CodeTable codeTable, int tableBits) {
+		if (tableBits < 1 || tableBits > 16)
+			throw new IllegalArgumentException("Table bits must be between 1 and 16.");
+		if (codeTable.symbolCount() == 0)
+			throw new IllegalArgumentException("Code table is empty.");
+
+		int maxLength = 0;
+		long trieSize = 1;
+		for (int symbol = 0; symbol < codeTable.alphabetSize(); symbol++) {
+			maxLength = Math.max(maxLength, codeTable.getLength(symbol));
+			trieSize += codeTable.getLength(symbol);
+		}
+		this.tableBits = Math.min(tableBits, maxLength);
+		this.symbolCount = codeTable.symbolCount();
+
+		buildTrie(codeTable, (int) Math.min(trieSize, Integer.MAX_VALUE - 8));
+		buildTable(codeTable);
+	}
+
+	public HuffmanDecoder(CodeTable codeTable) {
+		this(codeTable, DEFAULT_TABLE_BITS);
+	}
+
+	/**
+	 * Builds a decoder from the root of a Huffman tree. As in huffman_code, a
+	 * tree with a single leaf is given the code "0".
+	 *
+	 * @param huffmanRoot root of the Huffman tree
+	 * @return decoder for the codes of the tree
+	 */
+	public static HuffmanDecoder fromTree(BTNode<Integer, String> huffmanRoot) {
+		return new HuffmanDecoder(treeCodes(huffmanRoot));
+	}
+
+	/**
+	 * Builds a decoder from a compact {@code HuffmanTree}
+	 *
+	 * @param tree the Huffman tree
+	 * @return decoder for the codes of the tree
+	 */
+	public static HuffmanDecoder fromTree(HuffmanTree tree) {
+		return new HuffmanDecoder(tree.codeTable());
+	}
+
+	/**
+	 * Derives the code of every leaf of a Huffman tree, 0 for a left branch and 1
+	 * for a right branch.
+	 *
+	 * @param huffmanRoot root of the Huffman tree
+	 * @return table with the code of every leaf of the tree
+	 */
+	public static CodeTable treeCodes(BTNode<Integer, String> huffmanRoot) {
+		int maxSymbol = maxSymbol(huffmanRoot);
+		CodeTable result = new CodeTable(maxSymbol + 1);
+		if (huffmanRoot.isLeaf()) // Edge case if the input is a single character
+			result.set(huffmanRoot.getValue().charAt(0), 0, 1);
+		else
+			recTreeCodes(huffmanRoot, result, 0, 0);
+		return result;
+	}
+
+	private static int maxSymbol(BTNode<Integer, String> node) {
+		if (node == null)
+			return 0;
+		if (node.isLeaf())
+			return node.getValue().charAt(0);
+		return Math.max(maxSymbol(node.getLeftChild()), maxSymbol(node.getRightChild()));
+	}
+
+	private static void recTreeCodes(BTNode<Integer, String> node, CodeTable codes, long code, int length) {
+		if (node == null)
+			return;
+		if (node.isLeaf()) {
+			codes.set(node.getValue().charAt(0), code, length);
+		} else {
+			if (length == 64)
+				throw new IllegalArgumentException("Codes longer than 64 bits are not supported.");
+			recTreeCodes(node.getLeftChild(), codes, code << 1, length + 1);
+			recTreeCodes(node.getRightChild(), codes, (code << 1) | 1, length + 1);
+		}
+	}
+
+	/* Inserts every code into a binary trie stored in parallel arrays */
+	private void buildTrie(CodeTable codeTable, int maxNodes) {
+		left = new int[maxNodes];
+		right = new int[maxNodes];
+		leafSymbol = new int[maxNodes];
+		leafSymbol[0] = -1;
+		int nodes = 1;
+
+		for (int symbol = 0; symbol < codeTable.alphabetSize(); symbol++) {
+			int length = codeTable.getLength(symbol);
+			if (length == 0)
+				continue;
+			long code = codeTable.getCode(symbol);
+			int node = 0;
+			for (int i = length - 1; i >= 0; i--) {
+				if (leafSymbol[node] >= 0)
+					throw new IllegalArgumentException("Codes are not prefix free.");
+				int[] children = ((code >>> i) & 1) == 0 ? left : right;
+				if (children[node] == 0) { // 0 is the root, so it means no child
+					children[node] = nodes;
+					leafSymbol[nodes] = -1;
+					nodes++;
+				}
+				node = children[node];
+			}
+			if (leafSymbol[node] >= 0 || left[node] != 0 || right[node] != 0)
+				throw new IllegalArgumentException("Codes are not prefix free.");
+			leafSymbol[node] = symbol;
+		}
+	}
+
+	/* Fills the lookup table with every possible tableBits prefix */
+	private void buildTable(CodeTable codeTable) {
+		table = new int[1 << tableBits];
+		for (int prefix = 0; prefix < table.length; prefix++) {
+			/* Walk the trie with the bits of the prefix until we reach a leaf */
+			int node = 0;
+			int length = 0;
+			while (length < tableBits && leafSymbol[node] < 0) {
+				int bit = (prefix >>> (tableBits - 1 - length)) & 1;
+				node = bit == 0 ? left[node] : right[node];
+				length++;
+				if (node == 0) // Dead end, no code starts like this
+					break;
+			}
+
+			if (node == 0 && length > 0)
+				table[prefix] = INVALID;
+			else if (leafSymbol[node] >= 0)
+				table[prefix] = (leafSymbol[node] << LENGTH_BITS) | length;
+			else
+				table[prefix] = -(node + 1); // Long code, continue from this node
+		}
+	}
+
+	/**
+	 * Decodes all the bits in the buffer
+	 *
+	 * @param bits encoded bits
+	 * @return the decoded string
+	 */
+	public String decode(BitBuffer bits) {
+		StringBuilder result = new StringBuilder();
+		decode(bits, 0, bits.size(), result);
+		return result.toString();
+	}
+
+	/**
+	 * Decodes the bits from position {@code start} (inclusive) to {@code end}
+	 * (exclusive), appending the symbols to the result.
+	 *
+	 * @param bits   encoded bits
+	 * @param start  position of the first bit to decode
+	 * @param end    position after the last bit to decode
+	 * @param result where the decoded symbols are appended
+	 * @throws IllegalArgumentException if the bits are not a valid sequence of
+	 *                                  codes
+	 */
+	public void decode(BitBuffer bits, long start, long end, StringBuilder result) {
+		decode(bits, start, end, (chunk, count) -> result.append(chunk, 0, count));
+	}
+
+	/**
+	 * Decodes the bits from position {@code start} (inclusive) to {@code end}
+	 * (exclusive) as bytes, putting the symbols in the buffer from its current
+	 * position. Used for codes of the byte alphabet, the buffer can be a memory
+	 * mapped file.
+	 *
+	 * @param bits   encoded bits
+	 * @param start  position of the first bit to decode
+	 * @param end    position after the last bit to decode
+	 * @param result where the decoded symbols are put
+	 * @throws IllegalArgumentException if the bits are not a valid sequence of
+	 *                                  codes, or a symbol is not a byte
+	 */
+	public void decode(BitBuffer bits, long start, long end, ByteBuffer result) {
+		decode(bits, start, end, (chunk, count) -> {
+			if (count > result.remaining())
+				throw new IllegalArgumentException("Decoded more symbols than expected.");
+			for (int i = 0; i < count; i++) {
+				if (chunk[i] >= FrequencyTable.BYTE_ALPHABET)
+					throw new IllegalArgumentException("Symbol is not a byte: " + (int) chunk[i]);
+				result.put((byte) chunk[i]);
+			}
+		});
+	}
+
+	/* Receives the decoded symbols a chunk at a time */
+	private interface ChunkSink {
+		void accept(char[] chunk, int count);
+	}
+
+	private void decode(BitBuffer bits, long start, long end, ChunkSink result) {
+		char[] chunk = new char[4096]; // Symbols are handed to the result in chunks
+		int count = 0;
+		long[] words = bits.words();
+		int shift = 64 - tableBits;
+		long position = start;
+
+		while (position < end) {
+			/* Peek the next tableBits bits straight from the words of the buffer */
+			int word = (int) (position >>> 6);
+			int offset = (int) (position & 63);
+			long window = words[word] << offset;
+			if (offset > shift && word + 1 < words.length)
+				window |= words[word + 1] >>> (64 - offset);
+
+			int entry = table[(int) (window >>> shift)];
+			int symbol;
+			if (entry > 0) { // Short code, resolved with one probe
+				position += entry & LENGTH_MASK;
+				if (position > end)
+					throw new IllegalArgumentException("Encoded bits end in the middle of a code.");
+				symbol = entry >>> LENGTH_BITS;
+			} else if (entry < 0) { // Long code, walk the trie for the remaining bits
+				position += tableBits;
+				int node = -entry - 1;
+				while (leafSymbol[node] < 0) {
+					if (position >= end)
+						throw new IllegalArgumentException("Encoded bits end in the middle of a code.");
+					node = bits.getBit(position++) == 0 ? left[node] : right[node];
+					if (node == 0)
+						throw new IllegalArgumentException("Invalid code at bit " + position + ".");
+				}
+				symbol = leafSymbol[node];
+			} else {
+				throw new IllegalArgumentException("Invalid code at bit " + position + ".");
+			}
+
+			chunk[count++] = (char) symbol;
+			if (count == chunk.length) {
+				result.accept(chunk, count);
+				count = 0;
+			}
+		}
+		result.accept(chunk, count);
+	}
+
+	/**
+	 * @return amount of bits resolved with one table probe
+	 */
+	public int tableBits() {
+		return tableBits;
+	}
+
+	/**
+	 * @return amount of symbols the decoder knows
+	 */
+	public int symbolCount() {
+		return symbolCount;
+	}
+}
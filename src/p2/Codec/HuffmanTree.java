@@ -0,0 +1,314 @@
+package p2.Codec;
+
+import p2.DataStructures.List.LongArrayList;
+import p2.DataStructures.Map.Int2IntCounterMap;
+import p2.DataStructures.Tree.BTNode;
+
+/**
+ * Huffman tree stored in parallel primitive arrays instead of linked
+ * {@code BTNode} objects.
+ *
+ * Nodes are identified by their index. The leaves come first, one per symbol
+ * in increasing symbol order, and every parent is appended after them as it
+ * is created, so the root is always the last node. Internal nodes don't store
+ * the concatenation of their symbols like the {@code BTNode} tree did, they
+ * only keep the first (leftmost) symbol of their subtree.
+ *
+ * That first symbol is all that is needed to break ties the same way
+ * {@code BTNode.compareTo} does: the nodes waiting to be merged cover disjoint
+ * sets of one character symbols, so their concatenated strings always differ
+ * at the first character. Comparing by (weight, first symbol) gives the same
+ * order, and therefore the same tree and codes, as the original builder.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class HuffmanTree {
+
+	// private fields
+	private long[] weight;
+	private int[] left, right; // -1 for leaves
+	private int[] symbol; // Symbol of a leaf, first symbol of the subtree for internal nodes
+	private int leafCount;
+	private int nodeCount;
+
+	private HuffmanTree(int leafCount) {
+		int capacity = Math.max(1, 2 * leafCount - 1);
+		this.weight = new long[capacity];
+		this.left = new int[capacity];
+		this.right = new int[capacity];
+		this.symbol = new int[capacity];
+		this.leafCount = leafCount;
+		this.nodeCount = 0;
+	}
+
+	/**
+	 * Builds the Huffman tree for a frequency distribution. Symbols with a
+	 * frequency of 0 are left out. Runs in O(n log n) for n distinct symbols.
+	 *
+	 * @param frequencies frequency of each symbol
+	 * @return the Huffman tree, empty if no symbol has a frequency
+	 */
+	public static HuffmanTree build(FrequencyTable frequencies) {
+		return build(frequencies.counts());
+	}
+
+	/**
+	 * Builds the Huffman tree for the frequencies of an array indexed by symbol.
+	 * Symbols with a frequency of 0 are left out.
+	 *
+	 * @param counts frequency of each symbol
+	 * @return the Huffman tree, empty if no symbol has a frequency
+	 * @throws IllegalArgumentException if a frequency is negative
+	 */
+	public static HuffmanTree build(int[] counts) {
+		int distinct = 0;
+		for (int count : counts) {
+			if (count < 0)
+				throw new IllegalArgumentException("Frequencies cannot be negative.");
+			if (count != 0)
+				distinct++;
+		}
+		HuffmanTree tree = new HuffmanTree(distinct);
+		for (int s = 0; s < counts.length; s++)
+			if (counts[s] != 0)
+				tree.addNode(counts[s], -1, -1, s);
+		tree.mergeLeaves();
+		return tree;
+	}
+
+	/**
+	 * Builds the Huffman tree straight from a primitive counter of symbols, such
+	 * as code points, without going through a {@code FrequencyTable}.
+	 *
+	 * @param frequencies frequency of each symbol
+	 * @return the Huffman tree, empty if the counter is empty
+	 * @throws IllegalArgumentException if a symbol or a frequency is negative
+	 */
+	public static HuffmanTree build(Int2IntCounterMap frequencies) {
+		/* Pack (symbol, count) in a long so sorting puts the leaves in symbol order */
+		LongArrayList leaves = new LongArrayList(Math.max(1, frequencies.size()));
+		frequencies.forEach((symbol, count) -> {
+			if (symbol < 0 || count < 0)
+				throw new IllegalArgumentException("Symbols and frequencies cannot be negative.");
+			leaves.add(((long) symbol << 32) | count);
+		});
+		leaves.sort();
+
+		HuffmanTree tree = new HuffmanTree(leaves.size());
+		long[] sorted = leaves.elements();
+		for (int i = 0; i < leaves.size(); i++)
+			tree.addNode((int) sorted[i], -1, -1, (int) (sorted[i] >>> 32));
+		tree.mergeLeaves();
+		return tree;
+	}
+
+	/* Merges the leaves, which must already be in increasing symbol order, up to the root */
+	private void mergeLeaves() {
+		if (nodeCount == 0)
+			return;
+
+		/*
+		 * Binary min heap of node indexes. The leaves are already in increasing
+		 * symbol order, so it only has to be heapified by weight.
+		 */
+		int[] heap = new int[leafCount];
+		int heapSize = leafCount;
+		for (int i = 0; i < heapSize; i++)
+			heap[i] = i;
+		for (int i = heapSize / 2 - 1; i >= 0; i--)
+			siftDown(heap, heapSize, i);
+
+		while (heapSize > 1) {
+			int leftNode = heap[0]; // Removing the smallest element
+			heap[0] = heap[--heapSize];
+			siftDown(heap, heapSize, 0);
+			int rightNode = heap[0]; // The second smallest element is replaced by the parent
+			int parent = addNode(weight[leftNode] + weight[rightNode], leftNode, rightNode, symbol[leftNode]);
+			heap[0] = parent;
+			siftDown(heap, heapSize, 0);
+		}
+	}
+
+	private int addNode(long nodeWeight, int leftChild, int rightChild, int nodeSymbol) {
+		weight[nodeCount] = nodeWeight;
+		left[nodeCount] = leftChild;
+		right[nodeCount] = rightChild;
+		symbol[nodeCount] = nodeSymbol;
+		return nodeCount++;
+	}
+
+	/* Same order as BTNode.compareTo: weight first, then symbols */
+	private boolean less(int a, int b) {
+		if (weight[a] != weight[b])
+			return weight[a] < weight[b];
+		return symbol[a] < symbol[b];
+	}
+
+	private void siftDown(int[] heap, int heapSize, int position) {
+		int node = heap[position];
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= heapSize)
+				break;
+			if (child + 1 < heapSize && less(heap[child + 1], heap[child]))
+				child++; // Right child is the smaller one
+			if (!less(heap[child], node))
+				break;
+			heap[position] = heap[child];
+			position = child;
+		}
+		heap[position] = node;
+	}
+
+	/**
+	 * @return index of the root node, -1 if the tree is empty
+	 */
+	public int root() {
+		return nodeCount - 1;
+	}
+
+	public boolean isEmpty() {
+		return nodeCount == 0;
+	}
+
+	/**
+	 * @return amount of nodes in the tree
+	 */
+	public int size() {
+		return nodeCount;
+	}
+
+	/**
+	 * @return amount of leaves (symbols) in the tree
+	 */
+	public int leafCount() {
+		return leafCount;
+	}
+
+	public boolean isLeaf(int node) {
+		return left[node] < 0;
+	}
+
+	/**
+	 * @param node index of a node
+	 * @return index of the left child, -1 for a leaf
+	 */
+	public int left(int node) {
+		return left[node];
+	}
+
+	/**
+	 * @param node index of a node
+	 * @return index of the right child, -1 for a leaf
+	 */
+	public int right(int node) {
+		return right[node];
+	}
+
+	/**
+	 * @param node index of a node
+	 * @return sum of the frequencies of the symbols under the node
+	 */
+	public long weight(int node) {
+		return weight[node];
+	}
+
+	/**
+	 * @param node index of a node
+	 * @return symbol of a leaf, or the first symbol under an internal node
+	 */
+	public int symbol(int node) {
+		return symbol[node];
+	}
+
+	/**
+	 * Derives the code of every symbol from the shape of the tree, 0 for a left
+	 * branch and 1 for a right branch. As in huffman_code, a tree with a single
+	 * leaf gives its symbol the code "0".
+	 *
+	 * @return table with the code of every symbol of the tree
+	 */
+	public CodeTable codeTable() {
+		int maxSymbol = 0;
+		for (int i = 0; i < leafCount; i++)
+			maxSymbol = Math.max(maxSymbol, symbol[i]);
+		CodeTable result = new CodeTable(maxSymbol + 1);
+		if (isEmpty())
+			return result;
+		if (isLeaf(root())) { // Edge case if the input is a single character
+			result.set(symbol[root()], 0, 1);
+			return result;
+		}
+
+		/* Children always have a lower index than their parent, so going from the
+		 * root down to the leaves every parent's code is known before its children's */
+		long[] code = new long[nodeCount];
+		int[] length = new int[nodeCount];
+		for (int node = root(); node >= 0; node--) {
+			if (isLeaf(node)) {
+				result.set(symbol[node], code[node], length[node]);
+			} else {
+				if (length[node] == 64)
+					throw new IllegalStateException("Codes longer than 64 bits are not supported.");
+				code[left[node]] = code[node] << 1;
+				code[right[node]] = (code[node] << 1) | 1;
+				length[left[node]] = length[right[node]] = length[node] + 1;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Builds the equivalent linked {@code BTNode} tree, with the same keys and
+	 * values the original huffman_tree generated (the value of an internal node is
+	 * the concatenation of its children's values). Used by the original API,
+	 * {@code BinaryTreePrinter} and the tests.
+	 *
+	 * @return the root of the equivalent {@code BTNode} tree, null if the tree is
+	 *         empty
+	 */
+	public BTNode<Integer, String> toBTNode() {
+		return toBTNode(null);
+	}
+
+	/**
+	 * Same as {@link #toBTNode()} for trees whose symbols are not chars, like
+	 * the ranks of words. The value of a leaf is the name of its symbol.
+	 *
+	 * @param symbolNames name of each symbol, indexed by symbol (null to use the
+	 *                    symbols as chars)
+	 * @return the root of the equivalent {@code BTNode} tree, null if the tree is
+	 *         empty
+	 */
+	public BTNode<Integer, String> toBTNode(String[] symbolNames) {
+		if (isEmpty())
+			return null;
+		/* Children have lower indexes than their parents, so build in index order */
+		BTNode<Integer, String>[] nodes = newNodes(nodeCount);
+		for (int node = 0; node < nodeCount; node++) {
+			if (weight[node] > Integer.MAX_VALUE)
+				throw new IllegalStateException("Weight does not fit in a BTNode key.");
+			if (isLeaf(node)) {
+				String name = symbolNames == null ? String.valueOf((char) symbol[node]) : symbolNames[symbol[node]];
+				nodes[node] = new BTNode<Integer, String>((int) weight[node], name);
+			} else {
+				BTNode<Integer, String> leftNode = nodes[left[node]];
+				BTNode<Integer, String> rightNode = nodes[right[node]];
+				BTNode<Integer, String> parent = new BTNode<>((int) weight[node],
+						leftNode.getValue() + rightNode.getValue());
+				parent.setLeftChild(leftNode);
+				parent.setRightChild(rightNode);
+				leftNode.setParent(parent);
+				rightNode.setParent(parent);
+				nodes[node] = parent;
+			}
+		}
+		return nodes[root()];
+	}
+
+	/* Generic arrays can't be created directly, so the cast is unchecked */
+	@SuppressWarnings("unchecked")
+	private static BTNode<Integer, String>[] newNodes(int length) {
+		return (BTNode<Integer, String>[]) new BTNode<?, ?>[length];
+	}
+}
@@ -0,0 +1,136 @@
+package p2.Codec;
+
+import java.util.Arrays;
+
+/**
+ * Huffman code lengths with a maximum code length, computed with the
+ * package-merge algorithm (Larmore and Hirschberg, 1990).
+ *
+ * With skewed frequencies a Huffman tree can get very deep, and codes longer
+ * than a machine word are hard to handle. Package-merge finds the optimal code
+ * lengths among those that don't exceed the limit: the result is never longer
+ * than the limit and, under that restriction, encodes the input in as few bits
+ * as possible.
+ *
+ * The algorithm works on lists of items, one list per allowed code length.
+ * The deepest list has one item per symbol, sorted by frequency. Each list
+ * above it merges the symbols with "packages" made by pairing consecutive
+ * items of the list below. The code length of a symbol is how many times it
+ * appears, directly or inside packages, among the first 2n - 2 items of the
+ * top list. The packages taken from a list are always its first ones, so only
+ * whether each position is a symbol or a package needs to be remembered.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class LengthLimitedCode {
+
+	/* Same limit used by DEFLATE */
+	public static final int DEFAULT_MAX_LENGTH = 15;
+
+	/**
+	 * Computes the code length of each symbol, never exceeding maxLength. If the
+	 * regular Huffman code already fits, its lengths are returned unchanged.
+	 *
+	 * @param frequencies frequency of each symbol
+	 * @param maxLength   longest code allowed
+	 * @return code length of each symbol, indexed by symbol (0 if the symbol has
+	 *         a frequency of 0)
+	 * @throws IllegalArgumentException if there are more than 2^maxLength symbols
+	 */
+	public static int[] lengths(FrequencyTable frequencies, int maxLength) {
+		if (maxLength < 1 || maxLength > CanonicalCode.MAX_LENGTH)
+			throw new IllegalArgumentException("Max length must be between 1 and " + CanonicalCode.MAX_LENGTH + ".");
+		int n = frequencies.distinctSymbols();
+		if (maxLength < 31 && n > 1 << maxLength)
+			throw new IllegalArgumentException(n + " symbols don't fit in codes of " + maxLength + " bits.");
+
+		/* Nothing to limit when the Huffman code already fits */
+		int[] huffman = CanonicalCode.lengths(HuffmanTree.build(frequencies).codeTable());
+		int longest = 0;
+		for (int length : huffman)
+			longest = Math.max(longest, length);
+		if (longest <= maxLength)
+			return huffman;
+
+		return packageMerge(frequencies, n, maxLength);
+	}
+
+	private static int[] packageMerge(FrequencyTable frequencies, int n, int maxLength) {
+		/* Symbols sorted by (frequency, symbol) */
+		int[] counts = frequencies.counts();
+		int[] symbols = new int[n];
+		for (int s = 0, i = 0; s < counts.length; s++)
+			if (counts[s] != 0)
+				symbols[i++] = s;
+		sortByFrequency(symbols, counts);
+		long[] leafWeight = new long[n];
+		for (int i = 0; i < n; i++)
+			leafWeight[i] = counts[symbols[i]];
+
+		/*
+		 * isPackage[level][i] tells if position i of that level's list is a package.
+		 * Level maxLength - 1 is the deepest list, level 0 the top one.
+		 */
+		boolean[][] isPackage = new boolean[maxLength][];
+		long[] below = leafWeight.clone(); // Weights of the list below the current one
+		int belowSize = n;
+		isPackage[maxLength - 1] = new boolean[n];
+
+		for (int level = maxLength - 2; level >= 0; level--) {
+			int packages = belowSize / 2;
+			long[] current = new long[n + packages];
+			boolean[] kinds = new boolean[n + packages];
+			int leaf = 0, pack = 0, size = 0;
+			/* Merge the symbols and the packages by weight, symbols first on ties */
+			while (leaf < n || pack < packages) {
+				long packageWeight = pack < packages ? below[2 * pack] + below[2 * pack + 1] : Long.MAX_VALUE;
+				if (leaf < n && leafWeight[leaf] <= packageWeight) {
+					current[size++] = leafWeight[leaf++];
+				} else {
+					kinds[size] = true;
+					current[size++] = packageWeight;
+					pack++;
+				}
+			}
+			isPackage[level] = kinds;
+			below = current;
+			belowSize = size;
+		}
+
+		/* Walk down from the top list counting the symbols in the selected items */
+		int[] result = new int[counts.length];
+		int take = 2 * n - 2;
+		for (int level = 0; level < maxLength && take > 0; level++) {
+			int leaves = 0;
+			for (int i = 0; i < take; i++)
+				if (!isPackage[level][i])
+					leaves++;
+			/* Symbols are taken in frequency order, so it's always the first ones */
+			for (int i = 0; i < leaves; i++)
+				result[symbols[i]]++;
+			take = 2 * (take - leaves);
+		}
+		return result;
+	}
+
+	/* Sorts by packing (frequency, symbol) into a single long key */
+	private static void sortByFrequency(int[] symbols, int[] counts) {
+		long[] keys = new long[symbols.length];
+		for (int i = 0; i < symbols.length; i++)
+			keys[i] = ((long) counts[symbols[i]] << 32) | symbols[i];
+		Arrays.sort(keys);
+		for (int i = 0; i < symbols.length; i++)
+			symbols[i] = (int) keys[i];
+	}
+
+	/**
+	 * Builds canonical codes from the limited lengths
+	 *
+	 * @param frequencies frequency of each symbol
+	 * @param maxLength   longest code allowed
+	 * @return table with a code of at most maxLength bits for every symbol
+	 */
+	public static CodeTable codeTable(FrequencyTable frequencies, int maxLength) {
+		return CanonicalCode.assign(lengths(frequencies, maxLength));
+	}
+}
@@ -5,6 +5,11 @@ import java.util.NoSuchElementException;
 /**
  * Implement of the List ADT using an array-based structure 
  * 
+ * Elements are moved with {@code System.arraycopy} when the array grows or
+ * when they are shifted by an insertion or removal. Use
+ * {@link #ensureCapacity(int)} or {@link #addAll(List)} to size the array once
+ * when the amount of elements is known beforehand.
+ * 
  * @author Fernando J. Bermudez - bermed28
  *
  * @param <E> Generic data type to store elements
@@ -64,12 +69,45 @@ public class ArrayList<E> implements List<E> {
 		this.elements[this.currentSize++] = obj;
 	}
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Appends every element of another list, growing the array at most once.
+	 * 
+	 * @param other list with the elements to append, in order
+	 */
+	public void addAll(List<? extends E> other) {
+		int count = other.size();
+		this.ensureCapacity(this.currentSize + count);
+		if (other instanceof ArrayList) // Copy straight from the other array
+			System.arraycopy(((ArrayList<? extends E>) other).elements, 0, this.elements, this.currentSize, count);
+		else {
+			int i = this.currentSize;
+			for (E obj : other)
+				this.elements[i++] = obj;
+		}
+		this.currentSize += count;
+	}
+
+	/**
+	 * Makes sure the list can hold a given amount of elements without growing
+	 * again.
+	 * 
+	 * @param minCapacity amount of elements the list must be able to hold
+	 */
+	public void ensureCapacity(int minCapacity) {
+		if (minCapacity > this.elements.length)
+			reAllocate(minCapacity);
+	}
+
 	private void reAllocate() {
 		/* create a new array with twice the size */
-		E newElements[] = (E[]) new Object[2*this.elements.length];
-		for (int i = 0; i < this.size(); i++)
-			newElements[i] = this.elements[i];
+		reAllocate(2 * this.elements.length);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void reAllocate(int minCapacity) {
+		int newCapacity = Math.max(minCapacity, 2 * this.elements.length);
+		E newElements[] = (E[]) new Object[newCapacity];
+		System.arraycopy(this.elements, 0, newElements, 0, this.currentSize);
 		/* replace old elements with newElements
 		 * We could call elements.clear() first, but let the GC handle that */
 		this.elements = newElements;
@@ -86,8 +124,7 @@ public class ArrayList<E> implements List<E> {
 				if (this.currentSize == this.elements.length)
 					reAllocate();
 				// move everybody one spot to the back
-				for (int i = this.currentSize; i > index; i--)
-					this.elements[i] = this.elements[i - 1];
+				System.arraycopy(this.elements, index, this.elements, index + 1, this.currentSize - index);
 				// add element at position index
 				this.elements[index] = obj;
 				this.currentSize++;
@@ -113,8 +150,7 @@ public class ArrayList<E> implements List<E> {
 	public boolean remove(int index) {
 		if (index >= 0 && index < this.currentSize) {
 			// move everybody one spot to the front
-			for (int i = index; i < this.currentSize - 1; i++)
-				this.elements[i] = this.elements[i + 1];
+			System.arraycopy(this.elements, index + 1, this.elements, index, this.currentSize - index - 1);
 			this.elements[--this.currentSize] = null;
 			return true;
 		}
@@ -124,9 +160,18 @@ public class ArrayList<E> implements List<E> {
 
 	@Override
 	public int removeAll(E obj) {
-		int counter = 0;
-		while (this.remove(obj))
-			counter++;
+		if (obj == null)
+			throw new IllegalArgumentException("Object cannot be null.");
+		/* Move every element we keep to the front in a single pass,
+		 * instead of shifting the whole array once per removal */
+		int kept = 0;
+		for (int i = 0; i < this.currentSize; i++)
+			if (!this.elements[i].equals(obj))
+				this.elements[kept++] = this.elements[i];
+		int counter = this.currentSize - kept;
+		for (int i = kept; i < this.currentSize; i++)
+			this.elements[i] = null;
+		this.currentSize = kept;
 		return counter;
 	}
 
@@ -213,9 +258,7 @@ public class ArrayList<E> implements List<E> {
 	@Override
 	public Object[] toArray() {
 		Object[] result = new Object[this.size()];
-		for (int i=0; i < this.size(); ++i) {
-			result[i] = this.get(i);
-		}
+		System.arraycopy(this.elements, 0, result, 0, this.currentSize);
 		return result;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,183 @@
+package p2.DataStructures.List;
+
+/**
+ * Growable list of bits packed into {@code long} words
+ *
+ * Bits are stored most significant bit first inside the words, so bit 0 of
+ * the list is the highest bit of the first word. Along with the words we keep
+ * a bit count, since the last word is usually only partially filled.
+ *
+ * Up to 64 bits are appended or read with a single call, and the words can be
+ * read directly through {@link #words()}. Unused bits past the bit count are
+ * always zero, which lets readers {@link #peek(long, int)} past the end without
+ * special cases.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class BitList {
+
+	// protected fields, so subclasses can fill the words directly
+	protected long[] words;
+	protected long bitCount;
+	private static final int DEFAULT_SIZE = 16; // In words
+
+	public BitList(int initialWords) {
+		if (initialWords < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1.");
+		this.words = new long[initialWords];
+		this.bitCount = 0;
+	}
+
+	public BitList() {
+		this(DEFAULT_SIZE);
+	}
+
+	/**
+	 * Appends the lowest {@code length} bits of {@code code} to the list, most
+	 * significant bit first.
+	 *
+	 * @param code   bits to append, right aligned
+	 * @param length how many bits of code to append (0 to 64)
+	 */
+	public void append(long code, int length) {
+		if (length < 0 || length > 64)
+			throw new IllegalArgumentException("Length must be between 0 and 64.");
+		if (length == 0)
+			return;
+		ensureCapacity(bitCount + length);
+
+		if (length < 64)
+			code &= (1L << length) - 1; // Drop anything above the code
+		int word = (int) (bitCount >>> 6);
+		int free = 64 - (int) (bitCount & 63); // Free bits left in the current word
+
+		if (length <= free) { // Fits in the current word
+			words[word] |= code << (free - length);
+		} else { // Split between the current word and the next one
+			int spill = length - free;
+			words[word] |= code >>> spill;
+			words[word + 1] |= code << (64 - spill);
+		}
+		bitCount += length;
+	}
+
+	/**
+	 * Appends a single bit to the list
+	 *
+	 * @param bit true for 1, false for 0
+	 */
+	public void appendBit(boolean bit) {
+		append(bit ? 1 : 0, 1);
+	}
+
+	/**
+	 * Returns the bit at the given position
+	 *
+	 * @param index position of the bit
+	 * @return 0 or 1
+	 */
+	public int getBit(long index) {
+		if (index < 0 || index >= bitCount)
+			throw new IndexOutOfBoundsException();
+		return (int) (words[(int) (index >>> 6)] >>> (63 - (index & 63))) & 1;
+	}
+
+	/**
+	 * Reads {@code n} bits starting at position {@code index} without consuming
+	 * them. Positions past the end of the list read as 0.
+	 *
+	 * @param index position of the first bit to read
+	 * @param n     amount of bits to read (1 to 64)
+	 * @return the bits read, right aligned
+	 */
+	public long peek(long index, int n) {
+		if (n < 1 || n > 64)
+			throw new IllegalArgumentException("Amount of bits must be between 1 and 64.");
+		if (index < 0)
+			throw new IndexOutOfBoundsException();
+		int word = (int) (index >>> 6);
+		int offset = (int) (index & 63);
+		long value = word < words.length ? words[word] << offset : 0;
+		if (offset != 0 && word + 1 < words.length)
+			value |= words[word + 1] >>> (64 - offset);
+		return n == 64 ? value : value >>> (64 - n);
+	}
+
+	/**
+	 * Makes sure the list can hold at least {@code bits} bits without growing
+	 *
+	 * @param bits total amount of bits the list should be able to hold
+	 */
+	public void ensureCapacity(long bits) {
+		long neededWords = (bits + 63) >>> 6;
+		if (neededWords > Integer.MAX_VALUE - 8)
+			throw new IllegalStateException("Bit list is too large.");
+		if (neededWords > words.length) {
+			/* Double the size, or grow to what we need if that is still not enough */
+			long newLength = Math.max(neededWords, 2L * words.length);
+			long[] newWords = new long[(int) Math.min(newLength, Integer.MAX_VALUE - 8)];
+			System.arraycopy(words, 0, newWords, 0, wordCount());
+			words = newWords;
+		}
+	}
+
+	/**
+	 * @return amount of bits stored in the list
+	 */
+	public long size() {
+		return bitCount;
+	}
+
+	/**
+	 * @return amount of bytes needed to store the bits in the list
+	 */
+	public long byteSize() {
+		return (bitCount + 7) >>> 3;
+	}
+
+	/**
+	 * @return amount of words in use by the list
+	 */
+	public int wordCount() {
+		return (int) ((bitCount + 63) >>> 6);
+	}
+
+	/**
+	 * Direct access to the backing array, only the first {@link #wordCount()}
+	 * words are meaningful.
+	 *
+	 * @return the backing array of the list
+	 */
+	public long[] words() {
+		return words;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public void clear() {
+		for (int i = 0; i < wordCount(); i++)
+			words[i] = 0;
+		bitCount = 0;
+	}
+
+	/**
+	 * Appends all the bits of another list, which may be this same list
+	 *
+	 * @param other list with the bits to append
+	 */
+	public void appendAll(BitList other) {
+		/* Read the size first, when other is this list appending makes it grow */
+		long otherBits = other.bitCount;
+		ensureCapacity(bitCount + otherBits);
+		long[] otherWords = other.words; // Can't be reallocated by the appends below
+		int fullWords = (int) (otherBits >>> 6);
+		int rest = (int) (otherBits & 63);
+		long restBits = rest == 0 ? 0 : otherWords[fullWords] >>> (64 - rest);
+		for (int i = 0; i < fullWords; i++)
+			append(otherWords[i], 64);
+		if (rest != 0)
+			append(restBits, rest);
+	}
+}
@@ -0,0 +1,125 @@
+package p2.DataStructures.List;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of {@code int} values stored in a plain {@code int[]}
+ *
+ * Works like {@code ArrayList} but without boxing, which matters for long
+ * streams of symbols or code lengths. The backing array can be read directly
+ * through {@link #elements()} to avoid a call per element in hot loops.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class IntArrayList {
+
+	// private fields
+	private int[] elements;
+	private int currentSize;
+	private static final int DEFAULT_SIZE = 11;
+
+	public IntArrayList(int initialCapacity) {
+		if (initialCapacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1.");
+		this.elements = new int[initialCapacity];
+		this.currentSize = 0;
+	}
+
+	public IntArrayList() {
+		this(DEFAULT_SIZE);
+	}
+
+	public void add(int value) {
+		if (currentSize == elements.length)
+			reAllocate(currentSize + 1);
+		elements[currentSize++] = value;
+	}
+
+	/**
+	 * Appends {@code length} values of an array, starting at {@code offset}
+	 *
+	 * @param values array with the values to append
+	 * @param offset position of the first value to append
+	 * @param length amount of values to append
+	 */
+	public void addAll(int[] values, int offset, int length) {
+		if (offset < 0 || length < 0 || offset > values.length - length)
+			throw new IndexOutOfBoundsException();
+		ensureCapacity(currentSize + length);
+		System.arraycopy(values, offset, elements, currentSize, length);
+		currentSize += length;
+	}
+
+	public void addAll(int[] values) {
+		addAll(values, 0, values.length);
+	}
+
+	public int get(int index) {
+		if (index < 0 || index >= currentSize)
+			throw new IndexOutOfBoundsException();
+		return elements[index];
+	}
+
+	/**
+	 * @return the value that was replaced
+	 */
+	public int set(int index, int value) {
+		if (index < 0 || index >= currentSize)
+			throw new IndexOutOfBoundsException();
+		int old = elements[index];
+		elements[index] = value;
+		return old;
+	}
+
+	/**
+	 * Makes sure the list can hold a given amount of values without growing
+	 * again.
+	 *
+	 * @param minCapacity amount of values the list must be able to hold
+	 */
+	public void ensureCapacity(int minCapacity) {
+		if (minCapacity > elements.length)
+			reAllocate(minCapacity);
+	}
+
+	private void reAllocate(int minCapacity) {
+		/* Double the size, or grow to what we need if that is still not enough */
+		elements = Arrays.copyOf(elements, Math.max(minCapacity, 2 * elements.length));
+	}
+
+	/**
+	 * Sorts the values in ascending order
+	 */
+	public void sort() {
+		Arrays.sort(elements, 0, currentSize);
+	}
+
+	/**
+	 * Direct access to the backing array, only the first {@link #size()} values
+	 * are meaningful. The array changes when the list grows.
+	 *
+	 * @return the backing array of the list
+	 */
+	public int[] elements() {
+		return elements;
+	}
+
+	public int size() {
+		return currentSize;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public void clear() {
+		currentSize = 0;
+	}
+
+	/**
+	 * @return a copy of the values in the list
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(elements, currentSize);
+	}
+}
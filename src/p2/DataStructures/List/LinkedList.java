@@ -4,6 +4,13 @@ import java.util.NoSuchElementException;
 
 /**
  * Implementation of the List ADT using a Singly Linked Structure
+ * 
+ * The list keeps a pointer to its last node, so appending and reading the
+ * last element take constant time. It also remembers the last node reached by
+ * position: a loop calling get(0), get(1), ... continues from there instead of
+ * walking from the header every time, which makes it linear instead of
+ * quadratic.
+ * 
  * @author Fernando J. Bermudez - bermed28
  *
  * @param <E> Generic Data Type to store elements
@@ -80,14 +87,25 @@ public class LinkedList<E> implements List<E> {
 	
 	// private fields
 	private Node<E> header;	
+	private Node<E> tail; // Last node, the header if the list is empty
+	private Node<E> cursor; // Last node reached by get_node, at position cursorIndex
+	private int cursorIndex;
 	private int currentSize;
 
 	
 	public LinkedList() {
 		header = new Node<>();
+		tail = header;
+		resetCursor();
 		currentSize = 0;
 	}
 
+	/* Must be called when nodes are inserted or removed before the end of the list */
+	private void resetCursor() {
+		cursor = header;
+		cursorIndex = -1;
+	}
+
 	@Override
 	public Iterator<E> iterator() {
 		return new ListIterator();
@@ -95,13 +113,10 @@ public class LinkedList<E> implements List<E> {
 
 	@Override
 	public void add(E obj) {
-		Node<E> curNode, newNode;
-		// Need to find the last node
-		for (curNode = header; curNode.getNext() != null; curNode = curNode.getNext());
-		// Now curNode is the last node
-		// Create a new Node and make curNode point to it
-		newNode = new Node<>(obj);
-		curNode.setNext(newNode);
+		// The tail is the last node, create a new Node and make the tail point to it
+		Node<E> newNode = new Node<>(obj);
+		tail.setNext(newNode);
+		tail = newNode;
 		currentSize++;
 	}
 
@@ -123,6 +138,7 @@ public class LinkedList<E> implements List<E> {
 			newNode = new Node<>(obj, curNode.getNext());
 			curNode.setNext(newNode);
 			currentSize++;
+			resetCursor(); // Positions after index moved
 		}
 	}
 
@@ -141,8 +157,11 @@ public class LinkedList<E> implements List<E> {
 		if (nextNode != null) { // Found it!
 			// If we have A -> B -> C and want to remove B, make A point to C 
 			curNode.setNext(nextNode.getNext());
+			if (nextNode == tail)
+				tail = curNode;
 			nextNode.clear(); // free up resources
 			currentSize--;
+			resetCursor();
 			return true;
 		}
 		else
@@ -159,8 +178,11 @@ public class LinkedList<E> implements List<E> {
 		rmNode = curNode.getNext();
 		// If we have A -> B -> C and want to remove B, make A point to C 
 		curNode.setNext(rmNode.getNext());
+		if (rmNode == tail)
+			tail = curNode;
 		rmNode.clear();
 		currentSize--;		
+		resetCursor();
 		
 		return true;
 	}
@@ -173,10 +195,19 @@ public class LinkedList<E> implements List<E> {
 		   Allow -1 so that header node may be returned */
 		if (index < -1 || index >= size())
 			throw new IndexOutOfBoundsException();
-		curNode = header;
+		if (index == size() - 1)
+			return tail;
 		// Since first node is pos 0, let header be position -1
-		for (int curPos = -1; curPos < index; curPos++)
+		int curPos = -1;
+		curNode = header;
+		if (index >= cursorIndex) { // Continue from the last node reached instead of the header
+			curPos = cursorIndex;
+			curNode = cursor;
+		}
+		for (; curPos < index; curPos++)
 			curNode = curNode.getNext();
+		cursor = curNode;
+		cursorIndex = index;
 		return curNode;
 	}
 
@@ -197,6 +228,8 @@ public class LinkedList<E> implements List<E> {
 		while (nextNode != null) { 
 			if (nextNode.getValue().equals(obj)) { // Remove it!
 				curNode.setNext(nextNode.getNext());
+				if (nextNode == tail)
+					tail = curNode;
 				nextNode.clear();
 				currentSize--;
 				counter++;
@@ -209,6 +242,8 @@ public class LinkedList<E> implements List<E> {
 				nextNode = nextNode.getNext();
 			}
 		}
+		if (counter > 0)
+			resetCursor();
 		return counter;
 	}
 
@@ -285,17 +320,25 @@ public class LinkedList<E> implements List<E> {
 
 	@Override
 	public void clear() {
-		// Avoid throwing an exception if the list is already empty
-		while (size() > 0)
-			remove(0);
+		// Unlink every node so they can be freed, walking the list only once
+		Node<E> curNode = header.getNext();
+		while (curNode != null) {
+			Node<E> nextNode = curNode.getNext();
+			curNode.clear();
+			curNode = nextNode;
+		}
+		header.setNext(null);
+		tail = header;
+		resetCursor();
+		currentSize = 0;
 	}
 	
 	@Override
 	public Object[] toArray() {
 		Object[] result = new Object[this.size()];
-		for (int i=0; i < this.size(); ++i) {
-			result[i] = this.get(i);
-		}
+		int i = 0;
+		for (Node<E> curNode = header.getNext(); curNode != null; curNode = curNode.getNext())
+			result[i++] = curNode.getValue();
 		return result;
 	}
 }
\ No newline at end of file
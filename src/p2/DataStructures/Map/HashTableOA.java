@@ -0,0 +1,283 @@
+package p2.DataStructures.Map;
+
+import java.io.PrintStream;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+import p2.DataStructures.List.ArrayList;
+import p2.DataStructures.List.List;
+
+/**
+ * Implementation of the Hash Table ADT using an
+ * Open Addressing (Linear Probing) Collision Handling Scheme.
+ *
+ * Keys and values are stored in flat arrays whose length is always a power of
+ * two, so the bucket of a key is found with a mask instead of {@code %}. On a
+ * collision we just try the next slot, which keeps a lookup within a few
+ * neighbouring array positions instead of walking a linked list.
+ *
+ * The hash code of every key is mixed before it is used, so keys whose hash
+ * codes only differ in the high bits still land in different slots. Removals
+ * shift the following entries back instead of leaving tombstones. The slot
+ * arithmetic is shared with the counter maps through {@code OpenAddressing}.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ *
+ * @param <K> Generic value for keys to insert.
+ * @param <V> Generic value for values mapped to a certain key K.
+ */
+public class HashTableOA<K, V> implements Map<K, V> {
+
+	// private fields
+	private int currentSize;
+	private K[] keys; // null means the slot is empty
+	private V[] values;
+	private int[] hashes; // Mixed hash of the key in each slot, to avoid recomputing it
+	private HashFunction<K> hashFunction;
+	private static final int DEFAULT_SIZE = 16;
+
+	@SuppressWarnings("unchecked")
+	public HashTableOA(int initialCapacity, HashFunction<K> hashFunction) {
+		if (hashFunction == null)
+			throw new IllegalArgumentException("Hash function cannot be null");
+
+		int capacity = OpenAddressing.tableLength(initialCapacity);
+		currentSize = 0;
+		this.hashFunction = hashFunction;
+		keys = (K[]) new Object[capacity];
+		values = (V[]) new Object[capacity];
+		hashes = new int[capacity];
+	}
+
+	public HashTableOA(HashFunction<K> hashFunction) {
+		// delegate to this constructor if no capacity is entered by user
+		this(DEFAULT_SIZE, hashFunction);
+	}
+
+	public HashTableOA(int initialCapacity) {
+		this(initialCapacity, (key) -> key.hashCode());
+	}
+
+	public HashTableOA() {
+		this(DEFAULT_SIZE);
+	}
+
+	private int hash(K key) {
+		return OpenAddressing.mix(hashFunction.hashCode(key));
+	}
+
+	/* Returns the slot holding the key, or the empty slot where it would go */
+	private int findSlot(K key, int hash) {
+		int mask = keys.length - 1;
+		int slot = OpenAddressing.home(hash, mask);
+		while (keys[slot] != null) {
+			if (hashes[slot] == hash && keys[slot].equals(key)) // Found it!
+				return slot;
+			slot = OpenAddressing.next(slot, mask); // Try the next slot
+		}
+		return slot;
+	}
+
+	@Override
+	public V get(K key) {
+		if (key == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+		return values[findSlot(key, hash(key))]; // null if the slot is empty
+	}
+
+	@Override
+	public void put(K key, V value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		int hash = hash(key);
+		int slot = findSlot(key, hash);
+		if (keys[slot] != null) { // Key is already here, just replace the value
+			values[slot] = value;
+			return;
+		}
+		insert(slot, key, value, hash);
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		int hash = hash(key);
+		int slot = findSlot(key, hash);
+		if (keys[slot] != null)
+			return values[slot];
+		insert(slot, key, value, hash);
+		return null;
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		if (key == null || value == null || remappingFunction == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		int hash = hash(key);
+		int slot = findSlot(key, hash);
+		if (keys[slot] == null) {
+			insert(slot, key, value, hash);
+			return value;
+		}
+		V newValue = remappingFunction.apply(values[slot], value);
+		if (newValue == null)
+			deleteSlot(slot);
+		else
+			values[slot] = newValue;
+		return newValue;
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if (key == null || remappingFunction == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		int hash = hash(key);
+		int slot = findSlot(key, hash);
+		V newValue = remappingFunction.apply(key, values[slot]); // values[slot] is null if the slot is empty
+		if (keys[slot] == null) {
+			if (newValue != null)
+				insert(slot, key, newValue, hash);
+		} else if (newValue == null) {
+			deleteSlot(slot);
+		} else {
+			values[slot] = newValue;
+		}
+		return newValue;
+	}
+
+	/* Stores a new key in the empty slot found for it, growing the table first if needed */
+	private void insert(int slot, K key, V value, int hash) {
+		if (OpenAddressing.mustGrow(currentSize + 1, keys.length)) {
+			rehash();
+			slot = findSlot(key, hash);
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		hashes[slot] = hash;
+		currentSize++;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void rehash() {
+		K[] oldKeys = keys;
+		V[] oldValues = values;
+		int[] oldHashes = hashes;
+		keys = (K[]) new Object[oldKeys.length * 2];
+		values = (V[]) new Object[oldKeys.length * 2];
+		hashes = new int[oldKeys.length * 2];
+
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] == null)
+				continue;
+			/* Keys are unique, so just look for the first empty slot */
+			int slot = OpenAddressing.home(oldHashes[i], mask);
+			while (keys[slot] != null)
+				slot = OpenAddressing.next(slot, mask);
+			keys[slot] = oldKeys[i];
+			values[slot] = oldValues[i];
+			hashes[slot] = oldHashes[i];
+		}
+	}
+
+	@Override
+	public V remove(K key) {
+		if (key == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		int slot = findSlot(key, hash(key));
+		if (keys[slot] == null)
+			return null;
+		V result = values[slot];
+		deleteSlot(slot);
+		return result;
+	}
+
+	/* Empties an occupied slot */
+	private void deleteSlot(int slot) {
+		currentSize--;
+
+		/*
+		 * Leaving the slot empty could cut the probe sequence of keys stored after it,
+		 * so move back every following key that would no longer be reachable
+		 */
+		int mask = keys.length - 1;
+		int empty = slot;
+		int next = OpenAddressing.next(slot, mask);
+		while (keys[next] != null) {
+			int home = OpenAddressing.home(hashes[next], mask);
+			if (OpenAddressing.canFill(home, empty, next, mask)) {
+				keys[empty] = keys[next];
+				values[empty] = values[next];
+				hashes[empty] = hashes[next];
+				empty = next;
+			}
+			next = OpenAddressing.next(next, mask);
+		}
+		keys[empty] = null;
+		values[empty] = null;
+	}
+
+	@Override
+	public boolean containsKey(K key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public List<K> getKeys() {
+		List<K> result = new ArrayList<K>(Math.max(1, currentSize));
+		for (int i = 0; i < keys.length; i++)
+			if (keys[i] != null)
+				result.add(keys[i]);
+		return result;
+	}
+
+	@Override
+	public List<V> getValues() {
+		List<V> result = new ArrayList<V>(Math.max(1, currentSize));
+		for (int i = 0; i < keys.length; i++)
+			if (keys[i] != null)
+				result.add(values[i]);
+		return result;
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		if (action == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+		for (int i = 0; i < keys.length; i++)
+			if (keys[i] != null)
+				action.accept(keys[i], values[i]);
+	}
+
+	@Override
+	public int size() {
+		return currentSize;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = null;
+			values[i] = null;
+		}
+		currentSize = 0;
+	}
+
+	@Override
+	public void print(PrintStream out) {
+		for (int i = 0; i < keys.length; i++)
+			if (keys[i] != null)
+				out.printf("(%s, %s)\n", keys[i], values[i]);
+	}
+}
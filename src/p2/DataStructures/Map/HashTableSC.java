@@ -1,14 +1,26 @@
 package p2.DataStructures.Map;
 
 import java.io.PrintStream;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
-import p2.DataStructures.List.LinkedList;
+import p2.DataStructures.List.ArrayList;
 import p2.DataStructures.List.List;
 
 /**
- * Implementation of the Hash Table ADT using a 
+ * Implementation of the Hash Table ADT using a
  * Separate Chaining Collision Handling Scheme.
- * 
+ *
+ * Each bucket holds a singly linked chain of {@code BucketNode}s. When the
+ * table grows, the existing nodes are relinked into the new buckets instead
+ * of being copied.
+ *
+ * The table can grow in two ways. By default all the nodes are moved at once
+ * when the load factor is exceeded. In incremental mode the old buckets are
+ * kept next to the new ones and every operation moves a few of them, so no
+ * single {@code put} pays for moving the whole table.
+ *
  * @author Fernando J. Bermudez - bermed28
  *
  * @param <K> Generic value for keys to insert.
@@ -17,16 +29,19 @@ import p2.DataStructures.List.List;
 public class HashTableSC<K, V> implements Map<K, V> {
 
 	/**
-	 * The values in the linked lists within our buckets will be of this type.
+	 * The nodes of the chains within our buckets will be of this type.
 	 * @author Fernando J. Bermudez - bermed28
 	 */
 	private static class BucketNode<K, V> {
 		private K key;
 		private V value;
+		private int hash; // Hash code of the key, so moving the node doesn't recompute it
+		private BucketNode<K, V> next;
 
-		public BucketNode(K key, V value) {
+		public BucketNode(K key, V value, int hash) {
 			this.key = key;
 			this.value = value;
+			this.hash = hash;
 		}
 
 		public K getKey() {
@@ -41,29 +56,38 @@ public class HashTableSC<K, V> implements Map<K, V> {
 
 	// private fields
 	private int currentSize;
-	private List<BucketNode<K, V>>[] buckets;
+	private BucketNode<K, V>[] buckets;
+	private BucketNode<K, V>[] oldBuckets; // Buckets still being moved in incremental mode, null otherwise
+	private int migrated; // Old buckets before this index were already moved
 	private HashFunction<K> hashFunction;
-	private final static double loadFactor = 0.75;
+	private double loadFactor;
+	private boolean incremental;
+	private final static double DEFAULT_LOAD_FACTOR = 0.75;
 	private static final int DEFAULT_SIZE = 11;
+	private static final int MIGRATION_STEP = 2; // Old buckets moved by each operation
 
 
-	@SuppressWarnings("unchecked")
-	public HashTableSC(int initialCapacity, HashFunction<K> hashFunction) {
+	public HashTableSC(int initialCapacity, double loadFactor, boolean incremental, HashFunction<K> hashFunction) {
 		if (initialCapacity < 1)
 			throw new IllegalArgumentException("Capacity must be at least 1");
+		if (!(loadFactor > 0))
+			throw new IllegalArgumentException("Load factor must be positive");
 		if (hashFunction == null)
 			throw new IllegalArgumentException("Hash function cannot be null");
 
 		currentSize = 0;
 		this.hashFunction = hashFunction;
-		buckets = new LinkedList[initialCapacity];
-		for (int i = 0; i < initialCapacity; i++)
-			buckets[i] = new LinkedList<BucketNode<K, V>>();
+		this.loadFactor = loadFactor;
+		this.incremental = incremental;
+		buckets = newTable(initialCapacity);
+	}
 
+	public HashTableSC(int initialCapacity, HashFunction<K> hashFunction) {
+		this(initialCapacity, DEFAULT_LOAD_FACTOR, false, hashFunction);
 	}
 
-	public HashTableSC(HashFunction<K> hashFunction) { 
-		//delegate to this constructor if no capacity is entered by user 
+	public HashTableSC(HashFunction<K> hashFunction) {
+		//delegate to this constructor if no capacity is entered by user
 		this(DEFAULT_SIZE, hashFunction);
 	}
 
@@ -78,87 +102,212 @@ public class HashTableSC<K, V> implements Map<K, V> {
 		});
 	}
 
+	/* Generic arrays can't be created directly, this is the only unchecked cast of the table */
+	@SuppressWarnings("unchecked")
+	private static <K, V> BucketNode<K, V>[] newTable(int length) {
+		return (BucketNode<K, V>[]) new BucketNode<?, ?>[length];
+	}
+
+	/* Bucket of a hash code in a table of the given length */
+	private static int bucketIndex(int hash, int length) {
+		return Math.floorMod(hash, length);
+	}
+
+	/* The table holding a key: its old bucket if that bucket was not moved yet, the new one otherwise */
+	private BucketNode<K, V>[] tableOf(int hash) {
+		if (oldBuckets != null && bucketIndex(hash, oldBuckets.length) >= migrated)
+			return oldBuckets;
+		return buckets;
+	}
+
+	/* Returns the node with the given key, null if it is not in the table */
+	private BucketNode<K, V> findNode(K key, int hash) {
+		BucketNode<K, V>[] table = tableOf(hash);
+		for (BucketNode<K, V> BN = table[bucketIndex(hash, table.length)]; BN != null; BN = BN.next)
+			if (BN.hash == hash && BN.getKey().equals(key)) // Found it!
+				return BN;
+		return null;
+	}
 
 	@Override
 	public V get(K key) {
 		if (key == null)
 			throw new IllegalArgumentException("Parameter cannot be null.");
+		migrateStep();
 
-		/* First we determine the bucket corresponding to this key */
-		int targetBucket = hashFunction.hashCode(key) % buckets.length;
-		/* Within that bucket there is a linked list, since we're using Separate Chaining */
-		List<BucketNode<K, V>> L = buckets[targetBucket];
-		/* Look for the key within the nodes of that linked list */
-		for (BucketNode<K, V> BN : L) {
-			if (BN.getKey().equals(key)) // Found it!
-				return BN.getValue();
-		}
-
-		return null; // Did not find it
+		/* Look for the key within the chain of its bucket */
+		BucketNode<K, V> BN = findNode(key, hashFunction.hashCode(key));
+		return BN == null ? null : BN.getValue(); // null if we did not find it
 	}
 
 	@Override
 	public void put(K key, V value) {
 		if (key == null || value == null)
 			throw new IllegalArgumentException("Parameter cannot be null.");
-		
-		/* Can't have two elements with same key,
-		 * so remove existing element with the given key (if any) */
-		remove(key);
-
-		if((size() / buckets.length) > loadFactor) 
-			rehash();
+		migrateStep();
 
 		/* Determine the bucket corresponding to this key */
-		int targetBucket = hashFunction.hashCode(key) % buckets.length;
-		/* Within that bucket there is a linked list, since we're using Separate Chaining */
-		List<BucketNode<K, V>> L = buckets[targetBucket];
-		/* Finally, add the key/value to the linked list */
-		L.add(0, new BucketNode<K, V>(key, value));
-		currentSize++;
+		int hash = hashFunction.hashCode(key);
+		BucketNode<K, V>[] table = tableOf(hash);
+		int targetBucket = bucketIndex(hash, table.length);
+		/* Can't have two elements with same key, so replace the value if the key is already here */
+		for (BucketNode<K, V> BN = table[targetBucket]; BN != null; BN = BN.next) {
+			if (BN.hash == hash && BN.getKey().equals(key)) {
+				BN.value = value;
+				return;
+			}
+		}
+		insert(table, targetBucket, key, value, hash);
 	}
 
-	@SuppressWarnings("unchecked")
-	private void rehash() {
-		List<BucketNode<K,V>>[] oldMap = buckets;
-		List<BucketNode<K,V>>[] newMap = new LinkedList[size() * 2];
-		buckets = newMap;
-		for (int i = 0; i < buckets.length; i++) {
-			buckets[i] = new LinkedList<BucketNode<K,V>>();
+	@Override
+	public V putIfAbsent(K key, V value) {
+		if (key == null || value == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+		migrateStep();
+
+		int hash = hashFunction.hashCode(key);
+		BucketNode<K, V>[] table = tableOf(hash);
+		int targetBucket = bucketIndex(hash, table.length);
+		for (BucketNode<K, V> BN = table[targetBucket]; BN != null; BN = BN.next)
+			if (BN.hash == hash && BN.getKey().equals(key))
+				return BN.getValue();
+		insert(table, targetBucket, key, value, hash);
+		return null;
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		if (key == null || value == null || remappingFunction == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+		migrateStep();
+
+		int hash = hashFunction.hashCode(key);
+		BucketNode<K, V>[] table = tableOf(hash);
+		int targetBucket = bucketIndex(hash, table.length);
+		BucketNode<K, V> previous = null;
+		for (BucketNode<K, V> BN = table[targetBucket]; BN != null; previous = BN, BN = BN.next) {
+			if (BN.hash == hash && BN.getKey().equals(key)) { // Combine with the current value
+				V newValue = remappingFunction.apply(BN.getValue(), value);
+				if (newValue == null)
+					unlink(table, targetBucket, previous, BN);
+				else
+					BN.value = newValue;
+				return newValue;
+			}
 		}
-		for (List<BucketNode<K, V>> list : oldMap) {
-			for (BucketNode<K, V> old : list) {
-				/* Determine the bucket corresponding to this key */
-				int targetBucket = hashFunction.hashCode(old.getKey()) % buckets.length;
-				/* Within that bucket there is a linked list, since we're using Separate Chaining */
-				List<BucketNode<K, V>> L = buckets[targetBucket];
-				/* Finally, add the key/value to the linked list */
-				L.add(0, new BucketNode<K, V>(old.getKey(), old.getValue()));
+		insert(table, targetBucket, key, value, hash);
+		return value;
+	}
 
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if (key == null || remappingFunction == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+		migrateStep();
+
+		int hash = hashFunction.hashCode(key);
+		BucketNode<K, V>[] table = tableOf(hash);
+		int targetBucket = bucketIndex(hash, table.length);
+		BucketNode<K, V> previous = null;
+		for (BucketNode<K, V> BN = table[targetBucket]; BN != null; previous = BN, BN = BN.next) {
+			if (BN.hash == hash && BN.getKey().equals(key)) {
+				V newValue = remappingFunction.apply(key, BN.getValue());
+				if (newValue == null)
+					unlink(table, targetBucket, previous, BN);
+				else
+					BN.value = newValue;
+				return newValue;
 			}
 		}
+		V newValue = remappingFunction.apply(key, null);
+		if (newValue != null)
+			insert(table, targetBucket, key, newValue, hash);
+		return newValue;
+	}
+
+	/* Adds a new key to the front of the chain of a bucket, growing the table if needed */
+	private void insert(BucketNode<K, V>[] table, int targetBucket, K key, V value, int hash) {
+		BucketNode<K, V> newNode = new BucketNode<K, V>(key, value, hash);
+		newNode.next = table[targetBucket];
+		table[targetBucket] = newNode;
+		currentSize++;
+
+		if ((double) size() / buckets.length > loadFactor)
+			rehash();
+	}
+
+	/* Removes a node from the chain of a bucket given the node before it (null if it is the first) */
+	private void unlink(BucketNode<K, V>[] table, int targetBucket, BucketNode<K, V> previous, BucketNode<K, V> BN) {
+		if (previous == null)
+			table[targetBucket] = BN.next;
+		else
+			previous.next = BN.next;
+		BN.next = null;
+		currentSize--;
+	}
+
+	/* Doubles the amount of buckets, moving the nodes now or little by little */
+	private void rehash() {
+		/* A resize can't start while the previous one is still moving buckets */
+		finishMigration();
+
+		oldBuckets = buckets;
+		migrated = 0;
+		buckets = newTable(oldBuckets.length * 2);
+		if (!incremental)
+			finishMigration();
+	}
 
+	/* Moves the next few old buckets into the new ones */
+	private void migrateStep() {
+		if (oldBuckets == null)
+			return;
+		for (int i = 0; i < MIGRATION_STEP && migrated < oldBuckets.length; i++)
+			moveBucket(migrated++);
+		if (migrated == oldBuckets.length)
+			oldBuckets = null;
+	}
+
+	private void finishMigration() {
+		if (oldBuckets == null)
+			return;
+		while (migrated < oldBuckets.length)
+			moveBucket(migrated++);
+		oldBuckets = null;
+	}
+
+	/* Relinks every node of an old bucket into its new bucket, no nodes are created */
+	private void moveBucket(int oldBucket) {
+		BucketNode<K, V> BN = oldBuckets[oldBucket];
+		oldBuckets[oldBucket] = null;
+		while (BN != null) {
+			BucketNode<K, V> next = BN.next;
+			int targetBucket = bucketIndex(BN.hash, buckets.length);
+			BN.next = buckets[targetBucket];
+			buckets[targetBucket] = BN;
+			BN = next;
+		}
 	}
 
 	@Override
 	public V remove(K key) {
 		if (key == null)
 			throw new IllegalArgumentException("Parameter cannot be null.");
-
-		/* First we determine the bucket corresponding to this key */
-		int targetBucket = hashFunction.hashCode(key) % buckets.length;
-		/* Within that bucket there is a linked list, since we're using Separate Chaining */
-		List<BucketNode<K, V>> L = buckets[targetBucket];
-		/* Iterate over linked list trying to find this the key */
-		int pos = 0;
-		for (BucketNode<K, V> BN : L) {
-			if (BN.getKey().equals(key)) { // Found it!
-				L.remove(pos);
-				currentSize--;
+		migrateStep();
+
+		/* First we determine the bucket corresponding to this key, which may still be an old one */
+		int hash = hashFunction.hashCode(key);
+		BucketNode<K, V>[] table = tableOf(hash);
+		int targetBucket = bucketIndex(hash, table.length);
+
+		/* Iterate over the chain trying to find the key */
+		BucketNode<K, V> previous = null;
+		for (BucketNode<K, V> BN = table[targetBucket]; BN != null; previous = BN, BN = BN.next) {
+			if (BN.hash == hash && BN.getKey().equals(key)) { // Found it!
+				unlink(table, targetBucket, previous, BN);
 				return BN.getValue();
 			}
-			else
-				pos++;
 		}
 		return null;
 	}
@@ -170,24 +319,41 @@ public class HashTableSC<K, V> implements Map<K, V> {
 
 	@Override
 	public List<K> getKeys() {
-		List<K> result = new LinkedList<K>();
-		/* For each bucket in the hash table, get the keys in that linked list */
-		for (int i = 0; i < buckets.length; i++)
-			for (BucketNode<K, V> BN : buckets[i])
-				result.add(0, BN.getKey());
+		List<K> result = new ArrayList<K>(Math.max(1, currentSize));
+		/* For each bucket in the hash table, get the keys in that chain */
+		forEachNode(BN -> result.add(BN.getKey()));
 		return result;
 	}
 
 	@Override
 	public List<V> getValues() {
-		List<V> result = new LinkedList<V>();
-		/* For each bucket in the hash table, get the values in that linked list */
-		for (int i = 0; i < buckets.length; i++)
-			for (BucketNode<K, V> BN : buckets[i])
-				result.add(0, BN.getValue());
+		List<V> result = new ArrayList<V>(Math.max(1, currentSize));
+		/* For each bucket in the hash table, get the values in that chain */
+		forEachNode(BN -> result.add(BN.getValue()));
 		return result;
 	}
 
+	@Override
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		if (action == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+		/* Walk the chains in place, no list of keys or entries is built */
+		forEachNode(BN -> action.accept(BN.getKey(), BN.getValue()));
+	}
+
+	/* Visits every node of the new buckets, and of the old ones while they are being moved */
+	private void forEachNode(Consumer<BucketNode<K, V>> action) {
+		forEachNode(buckets, action);
+		if (oldBuckets != null)
+			forEachNode(oldBuckets, action);
+	}
+
+	private static <K, V> void forEachNode(BucketNode<K, V>[] table, Consumer<BucketNode<K, V>> action) {
+		for (int i = 0; i < table.length; i++)
+			for (BucketNode<K, V> BN = table[i]; BN != null; BN = BN.next)
+				action.accept(BN);
+	}
+
 	@Override
 	public int size() {
 		return currentSize;
@@ -201,15 +367,14 @@ public class HashTableSC<K, V> implements Map<K, V> {
 	@Override
 	public void clear() {
 		currentSize = 0;
+		oldBuckets = null;
 		for (int i = 0; i < buckets.length; i++)
-			buckets[i].clear();
+			buckets[i] = null;
 	}
 
 	@Override
 	public void print(PrintStream out) {
-		/* For each bucket in the hash table, print the elements in that linked list */
-		for (int i = 0; i < buckets.length; i++)
-			for (BucketNode<K, V> BN : buckets[i])
-				out.printf("(%s, %s)\n", BN.getKey(), BN.getValue());
+		/* For each bucket in the hash table, print the elements in that chain */
+		forEachNode(BN -> out.printf("(%s, %s)\n", BN.getKey(), BN.getValue()));
 	}
-}
\ No newline at end of file
+}
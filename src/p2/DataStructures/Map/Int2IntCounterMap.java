@@ -0,0 +1,209 @@
+package p2.DataStructures.Map;
+
+import java.io.PrintStream;
+
+/**
+ * Hash table that counts occurrences of {@code int} keys, such as Unicode code
+ * points, with no boxing at all.
+ *
+ * Keys and counts live in two flat {@code int} arrays using the same Open
+ * Addressing (Linear Probing) scheme as {@code HashTableOA} (see
+ * {@code OpenAddressing}). A count of 0
+ * marks an empty slot, so a key whose count reaches 0 is removed and adding to
+ * a missing key inserts it.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class Int2IntCounterMap {
+
+	/**
+	 * Receives the entries of the map in {@link Int2IntCounterMap#forEach}
+	 */
+	@FunctionalInterface
+	public interface IntIntConsumer {
+		public void accept(int key, int count);
+	}
+
+	// private fields
+	private int currentSize;
+	private int[] keys;
+	private int[] counts; // 0 means the slot is empty
+	private static final int DEFAULT_SIZE = 16;
+
+	public Int2IntCounterMap(int initialCapacity) {
+		int capacity = OpenAddressing.tableLength(initialCapacity);
+		currentSize = 0;
+		keys = new int[capacity];
+		counts = new int[capacity];
+	}
+
+	public Int2IntCounterMap() {
+		this(DEFAULT_SIZE);
+	}
+
+	/* Returns the slot holding the key, or the empty slot where it would go */
+	private int findSlot(int key) {
+		int mask = keys.length - 1;
+		int slot = OpenAddressing.home(OpenAddressing.mix(key), mask);
+		while (counts[slot] != 0) {
+			if (keys[slot] == key)
+				return slot;
+			slot = OpenAddressing.next(slot, mask);
+		}
+		return slot;
+	}
+
+	/**
+	 * @param key key to look for
+	 * @return the count of the key, 0 if it is not present
+	 */
+	public int get(int key) {
+		return counts[findSlot(key)]; // 0 if the slot is empty
+	}
+
+	/**
+	 * Adds to the count of a key, inserting it if it is not present.
+	 *
+	 * @param key   key to count
+	 * @param delta amount to add, may be negative
+	 * @return the new count of the key (0 means it was removed)
+	 * @throws ArithmeticException if the count overflows an {@code int}
+	 */
+	public int add(int key, int delta) {
+		int slot = findSlot(key);
+		if (counts[slot] == 0) {
+			if (delta != 0)
+				insert(slot, key, delta);
+			return delta;
+		}
+		int count = Math.addExact(counts[slot], delta);
+		if (count == 0)
+			deleteSlot(slot);
+		else
+			counts[slot] = count;
+		return count;
+	}
+
+	/**
+	 * Adds one to the count of a key
+	 *
+	 * @param key key to count
+	 * @return the new count of the key
+	 */
+	public int increment(int key) {
+		return add(key, 1);
+	}
+
+	/**
+	 * Sets the count of a key. A count of 0 removes the key.
+	 *
+	 * @param key   key to store
+	 * @param count new count of the key
+	 */
+	public void put(int key, int count) {
+		int slot = findSlot(key);
+		if (counts[slot] == 0) {
+			if (count != 0)
+				insert(slot, key, count);
+		} else if (count == 0) {
+			deleteSlot(slot);
+		} else {
+			counts[slot] = count;
+		}
+	}
+
+	/* Stores a new key in the empty slot found for it, growing the table first if needed */
+	private void insert(int slot, int key, int count) {
+		if (OpenAddressing.mustGrow(currentSize + 1, keys.length)) {
+			rehash();
+			slot = findSlot(key);
+		}
+		keys[slot] = key;
+		counts[slot] = count;
+		currentSize++;
+	}
+
+	private void rehash() {
+		int[] oldKeys = keys;
+		int[] oldCounts = counts;
+		keys = new int[oldKeys.length * 2];
+		counts = new int[oldKeys.length * 2];
+
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldCounts[i] == 0)
+				continue;
+			int slot = OpenAddressing.home(OpenAddressing.mix(oldKeys[i]), mask);
+			while (counts[slot] != 0)
+				slot = OpenAddressing.next(slot, mask);
+			keys[slot] = oldKeys[i];
+			counts[slot] = oldCounts[i];
+		}
+	}
+
+	/**
+	 * @param key key to remove
+	 * @return the count the key had, 0 if it was not present
+	 */
+	public int remove(int key) {
+		int slot = findSlot(key);
+		int result = counts[slot];
+		if (result != 0)
+			deleteSlot(slot);
+		return result;
+	}
+
+	/* Empties an occupied slot, moving back the keys that would become unreachable */
+	private void deleteSlot(int slot) {
+		currentSize--;
+		int mask = keys.length - 1;
+		int empty = slot;
+		int next = OpenAddressing.next(slot, mask);
+		while (counts[next] != 0) {
+			int home = OpenAddressing.home(OpenAddressing.mix(keys[next]), mask);
+			if (OpenAddressing.canFill(home, empty, next, mask)) {
+				keys[empty] = keys[next];
+				counts[empty] = counts[next];
+				empty = next;
+			}
+			next = OpenAddressing.next(next, mask);
+		}
+		counts[empty] = 0;
+	}
+
+	public boolean containsKey(int key) {
+		return get(key) != 0;
+	}
+
+	/**
+	 * Calls the action with every key and its count, in no particular order.
+	 *
+	 * @param action receives each key and its count
+	 */
+	public void forEach(IntIntConsumer action) {
+		for (int i = 0; i < keys.length; i++)
+			if (counts[i] != 0)
+				action.accept(keys[i], counts[i]);
+	}
+
+	/**
+	 * @return amount of distinct keys counted
+	 */
+	public int size() {
+		return currentSize;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public void clear() {
+		for (int i = 0; i < counts.length; i++)
+			counts[i] = 0;
+		currentSize = 0;
+	}
+
+	public void print(PrintStream out) {
+		forEach((key, count) -> out.printf("(%d, %d)\n", key, count));
+	}
+}
@@ -1,6 +1,8 @@
 package p2.DataStructures.Map;
 
 import java.io.PrintStream;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
 import p2.DataStructures.List.List;
 
@@ -32,6 +34,41 @@ public interface Map<K, V> {
 	 */
 	public void put(K key, V value);
 	
+	/**
+	 * Method that inserts a given value into the map only if the given key
+	 * is not present yet. The key is looked up a single time.
+	 * 
+	 * @param key	Given key to store in map
+	 * @param value	Given value to associate with the key if it is not present
+	 * @return		The value already associated to the key, null if the value was inserted.
+	 */
+	public V putIfAbsent(K key, V value);
+	
+	/**
+	 * Method that combines a given value with the one already associated to a
+	 * given key. If the key is not present, the given value is inserted.
+	 * Otherwise the key is associated to the result of the remapping function,
+	 * or removed if the function returns null. The key is looked up a single time.
+	 * 
+	 * @param key					Given key to store in map
+	 * @param value					Given value to insert or combine with the current one
+	 * @param remappingFunction		Function that combines the current value with the given one
+	 * @return						The new value associated to the key, null if it was removed.
+	 */
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction);
+	
+	/**
+	 * Method that associates a given key to the result of a remapping function
+	 * of the key and its current value (null if the key is not present). If the
+	 * function returns null the key is removed, or not inserted. The key is
+	 * looked up a single time.
+	 * 
+	 * @param key					Given key to store in map
+	 * @param remappingFunction		Function that computes the new value
+	 * @return						The new value associated to the key, null if there is none.
+	 */
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction);
+	
 	/**
 	 * Method that removes a value that is associated to a given key. 
 	 * The method returns null if the key is not present in the map.
@@ -61,6 +98,15 @@ public interface Map<K, V> {
 	 */
 	public List<V> getValues();
 	
+	/**
+	 * Method that calls a given action with every key and its value, in no
+	 * particular order. Unlike going through getKeys() and calling get() on each
+	 * key, no list is built and no key is hashed again.
+	 * 
+	 * @param action	Action that receives each key and the value associated to it
+	 */
+	public void forEach(BiConsumer<? super K, ? super V> action);
+	
 	/**
 	 * Method that returns the number of elements stored in the map.
 	 * @return	Number of elements stored in map.
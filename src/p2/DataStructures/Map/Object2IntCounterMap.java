@@ -0,0 +1,247 @@
+package p2.DataStructures.Map;
+
+import java.io.PrintStream;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Hash table that counts occurrences of keys, storing the counts as primitive
+ * {@code int}s.
+ *
+ * A {@code Map<K, Integer>} boxes every count and, in {@code HashTableSC},
+ * wraps each entry in a node. Here the keys and counts live in two flat
+ * arrays with the same Open Addressing (Linear Probing) scheme as
+ * {@code HashTableOA} (see {@code OpenAddressing}), so the only object per
+ * distinct key is the key itself.
+ *
+ * A key with a count of 0 is not stored: adding to a missing key inserts it,
+ * and a key whose count reaches 0 is removed.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ *
+ * @param <K> Generic value for the keys to count.
+ */
+public class Object2IntCounterMap<K> {
+
+	// private fields
+	private int currentSize;
+	private K[] keys; // null means the slot is empty
+	private int[] counts;
+	private int[] hashes; // Mixed hash of the key in each slot, to avoid recomputing it
+	private HashFunction<K> hashFunction;
+	private static final int DEFAULT_SIZE = 16;
+
+	@SuppressWarnings("unchecked")
+	public Object2IntCounterMap(int initialCapacity, HashFunction<K> hashFunction) {
+		if (hashFunction == null)
+			throw new IllegalArgumentException("Hash function cannot be null");
+
+		int capacity = OpenAddressing.tableLength(initialCapacity);
+		currentSize = 0;
+		this.hashFunction = hashFunction;
+		keys = (K[]) new Object[capacity];
+		counts = new int[capacity];
+		hashes = new int[capacity];
+	}
+
+	public Object2IntCounterMap(int initialCapacity) {
+		this(initialCapacity, (key) -> key.hashCode());
+	}
+
+	public Object2IntCounterMap() {
+		this(DEFAULT_SIZE);
+	}
+
+	private int hash(K key) {
+		return OpenAddressing.mix(hashFunction.hashCode(key));
+	}
+
+	/* Returns the slot holding the key, or the empty slot where it would go */
+	private int findSlot(K key, int hash) {
+		int mask = keys.length - 1;
+		int slot = OpenAddressing.home(hash, mask);
+		while (keys[slot] != null) {
+			if (hashes[slot] == hash && keys[slot].equals(key))
+				return slot;
+			slot = OpenAddressing.next(slot, mask);
+		}
+		return slot;
+	}
+
+	/**
+	 * @param key key to look for
+	 * @return the count of the key, 0 if it is not present
+	 */
+	public int get(K key) {
+		if (key == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+		return counts[findSlot(key, hash(key))]; // 0 if the slot is empty
+	}
+
+	/**
+	 * Adds to the count of a key, inserting it if it is not present.
+	 *
+	 * @param key   key to count
+	 * @param delta amount to add, may be negative
+	 * @return the new count of the key (0 means it was removed)
+	 * @throws ArithmeticException if the count overflows an {@code int}
+	 */
+	public int add(K key, int delta) {
+		if (key == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		int hash = hash(key);
+		int slot = findSlot(key, hash);
+		if (keys[slot] == null) {
+			if (delta != 0)
+				insert(slot, key, delta, hash);
+			return delta;
+		}
+		int count = Math.addExact(counts[slot], delta);
+		if (count == 0)
+			deleteSlot(slot);
+		else
+			counts[slot] = count;
+		return count;
+	}
+
+	/**
+	 * Adds one to the count of a key
+	 *
+	 * @param key key to count
+	 * @return the new count of the key
+	 */
+	public int increment(K key) {
+		return add(key, 1);
+	}
+
+	/**
+	 * Sets the count of a key. A count of 0 removes the key.
+	 *
+	 * @param key   key to store
+	 * @param count new count of the key
+	 */
+	public void put(K key, int count) {
+		if (key == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		int hash = hash(key);
+		int slot = findSlot(key, hash);
+		if (keys[slot] == null) {
+			if (count != 0)
+				insert(slot, key, count, hash);
+		} else if (count == 0) {
+			deleteSlot(slot);
+		} else {
+			counts[slot] = count;
+		}
+	}
+
+	/* Stores a new key in the empty slot found for it, growing the table first if needed */
+	private void insert(int slot, K key, int count, int hash) {
+		if (OpenAddressing.mustGrow(currentSize + 1, keys.length)) {
+			rehash();
+			slot = findSlot(key, hash);
+		}
+		keys[slot] = key;
+		counts[slot] = count;
+		hashes[slot] = hash;
+		currentSize++;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void rehash() {
+		K[] oldKeys = keys;
+		int[] oldCounts = counts;
+		int[] oldHashes = hashes;
+		keys = (K[]) new Object[oldKeys.length * 2];
+		counts = new int[oldKeys.length * 2];
+		hashes = new int[oldKeys.length * 2];
+
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] == null)
+				continue;
+			int slot = OpenAddressing.home(oldHashes[i], mask);
+			while (keys[slot] != null)
+				slot = OpenAddressing.next(slot, mask);
+			keys[slot] = oldKeys[i];
+			counts[slot] = oldCounts[i];
+			hashes[slot] = oldHashes[i];
+		}
+	}
+
+	/**
+	 * @param key key to remove
+	 * @return the count the key had, 0 if it was not present
+	 */
+	public int remove(K key) {
+		if (key == null)
+			throw new IllegalArgumentException("Parameter cannot be null.");
+
+		int slot = findSlot(key, hash(key));
+		if (keys[slot] == null)
+			return 0;
+		int result = counts[slot];
+		deleteSlot(slot);
+		return result;
+	}
+
+	/* Empties an occupied slot, moving back the keys that would become unreachable */
+	private void deleteSlot(int slot) {
+		currentSize--;
+		int mask = keys.length - 1;
+		int empty = slot;
+		int next = OpenAddressing.next(slot, mask);
+		while (keys[next] != null) {
+			int home = OpenAddressing.home(hashes[next], mask);
+			if (OpenAddressing.canFill(home, empty, next, mask)) {
+				keys[empty] = keys[next];
+				counts[empty] = counts[next];
+				hashes[empty] = hashes[next];
+				empty = next;
+			}
+			next = OpenAddressing.next(next, mask);
+		}
+		keys[empty] = null;
+		counts[empty] = 0;
+	}
+
+	public boolean containsKey(K key) {
+		return get(key) != 0;
+	}
+
+	/**
+	 * Calls the action with every key and its count, in no particular order.
+	 * No objects are created for the entries.
+	 *
+	 * @param action receives each key and its count
+	 */
+	public void forEach(ObjIntConsumer<? super K> action) {
+		for (int i = 0; i < keys.length; i++)
+			if (keys[i] != null)
+				action.accept(keys[i], counts[i]);
+	}
+
+	/**
+	 * @return amount of distinct keys counted
+	 */
+	public int size() {
+		return currentSize;
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public void clear() {
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = null;
+			counts[i] = 0;
+		}
+		currentSize = 0;
+	}
+
+	public void print(PrintStream out) {
+		forEach((key, count) -> out.printf("(%s, %d)\n", key, count));
+	}
+}
@@ -0,0 +1,83 @@
+package p2.DataStructures.Map;
+
+/**
+ * Slot arithmetic shared by the Open Addressing (Linear Probing) tables of this
+ * package: {@code HashTableOA}, {@code Object2IntCounterMap} and
+ * {@code Int2IntCounterMap}.
+ *
+ * The tables always have a power of two length, so a slot is found by masking
+ * the low bits of a mixed hash, and the slots wrap around with the same mask.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+final class OpenAddressing {
+
+	/* Most entries per slot before a table grows */
+	static final double LOAD_FACTOR = 0.5;
+
+	private OpenAddressing() {
+	}
+
+	/**
+	 * @param initialCapacity requested capacity, at least 1
+	 * @return length of the table: the capacity rounded up to a power of two
+	 */
+	static int tableLength(int initialCapacity) {
+		if (initialCapacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1");
+		return Integer.highestOneBit(Math.max(2, initialCapacity - 1)) << 1;
+	}
+
+	/**
+	 * Spreads the bits of a hash code with the MurmurHash3 finalizer. The slot is
+	 * taken from the low bits, so every input bit must reach them: a single
+	 * multiply only moves bits up, and one fold brings down just the next 16.
+	 *
+	 * @param hashCode hash code of a key
+	 * @return the mixed hash
+	 */
+	static int mix(int hashCode) {
+		int h = (hashCode ^ (hashCode >>> 16)) * 0x85EBCA6B;
+		h = (h ^ (h >>> 13)) * 0xC2B2AE35;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * @param size   amount of keys after an insertion
+	 * @param length length of the table
+	 * @return whether the table must grow before the insertion
+	 */
+	static boolean mustGrow(int size, int length) {
+		return size > length * LOAD_FACTOR;
+	}
+
+	/**
+	 * @return the slot where the probe sequence of a mixed hash starts
+	 */
+	static int home(int hash, int mask) {
+		return hash & mask;
+	}
+
+	/**
+	 * @return the slot probed after the given one
+	 */
+	static int next(int slot, int mask) {
+		return (slot + 1) & mask;
+	}
+
+	/**
+	 * Backward shift deletion: after a slot is emptied the following keys are
+	 * moved back into the hole, unless that would put them before their home
+	 * slot, where a lookup would never find them.
+	 *
+	 * @param home  home slot of the key in {@code slot}
+	 * @param hole  slot that was emptied
+	 * @param slot  slot of the key that may be moved
+	 * @param mask  length of the table minus one
+	 * @return whether the key can fill the hole
+	 */
+	static boolean canFill(int home, int hole, int slot, int mask) {
+		/* The key can fill the hole if its home slot is not between the hole and it */
+		return ((slot - home) & mask) >= ((slot - hole) & mask);
+	}
+}
@@ -0,0 +1,112 @@
+package p2.DataStructures.PriorityQueue;
+
+/**
+ * Implementation of the Priority Queue ADT using an array-based binary min
+ * heap
+ * 
+ * The element at position i has its children at positions 2i + 1 and 2i + 2,
+ * and is never greater than either of them, so the smallest element is always
+ * at position 0. Adding and removing the smallest element take O(log n).
+ * 
+ * @author Alejandro A. Perez Pabon - 802211489
+ *
+ * @param <E> Generic comparable data type for elements to insert
+ */
+public class BinaryHeap<E extends Comparable<? super E>> implements PriorityQueue<E> {
+
+	// private fields
+	private E elements[];
+	private int currentSize;
+	private static final int DEFAULT_SIZE = 11;
+
+	public BinaryHeap(int initialCapacity) {
+		if (initialCapacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1.");
+		this.currentSize = 0;
+		this.elements = newArray(initialCapacity);
+	}
+
+	public BinaryHeap() {
+		this(DEFAULT_SIZE);
+	}
+
+	@Override
+	public void add(E e) {
+		if (e == null)
+			throw new IllegalArgumentException("Value cannot be null.");
+		if (currentSize == elements.length)
+			reAllocate();
+		/* Start at the end and move up while the parent is greater */
+		int position = currentSize++;
+		while (position > 0) {
+			int parent = (position - 1) / 2;
+			if (e.compareTo(elements[parent]) >= 0)
+				break;
+			elements[position] = elements[parent];
+			position = parent;
+		}
+		elements[position] = e;
+	}
+
+	private void reAllocate() {
+		/* create a new array with twice the size */
+		E newElements[] = newArray(2 * elements.length);
+		System.arraycopy(elements, 0, newElements, 0, currentSize);
+		elements = newElements;
+	}
+
+	/* Arrays of a type parameter can't be created directly, this is the only unchecked cast */
+	@SuppressWarnings("unchecked")
+	private static <E extends Comparable<? super E>> E[] newArray(int length) {
+		return (E[]) new Comparable<?>[length];
+	}
+
+	@Override
+	public E min() {
+		return isEmpty() ? null : elements[0];
+	}
+
+	@Override
+	public E removeMin() {
+		if (isEmpty())
+			return null;
+		E result = elements[0];
+		E last = elements[--currentSize];
+		elements[currentSize] = null;
+
+		/* Put the last element at the root and move it down while a child is smaller */
+		if (currentSize > 0) {
+			int position = 0;
+			while (true) {
+				int child = 2 * position + 1;
+				if (child >= currentSize)
+					break;
+				if (child + 1 < currentSize && elements[child + 1].compareTo(elements[child]) < 0)
+					child++; // Right child is the smaller one
+				if (last.compareTo(elements[child]) <= 0)
+					break;
+				elements[position] = elements[child];
+				position = child;
+			}
+			elements[position] = last;
+		}
+		return result;
+	}
+
+	@Override
+	public int size() {
+		return currentSize;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < currentSize; i++)
+			elements[i] = null;
+		currentSize = 0;
+	}
+}
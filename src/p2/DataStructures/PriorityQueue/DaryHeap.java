@@ -0,0 +1,131 @@
+package p2.DataStructures.PriorityQueue;
+
+/**
+ * Implementation of the Priority Queue ADT using an array-based d-ary min heap
+ *
+ * Same idea as {@code BinaryHeap}, but every element has up to d children, at
+ * positions d*i + 1 to d*i + d. The heap is only log_d(n) levels tall, so
+ * adding is cheaper, while removing the smallest element compares d children
+ * per level. With d = 4 the children of a node usually share a cache line.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ *
+ * @param <E> Generic comparable data type for elements to insert
+ */
+public class DaryHeap<E extends Comparable<? super E>> implements PriorityQueue<E> {
+
+	// private fields
+	private E elements[];
+	private int currentSize;
+	private int arity;
+	private static final int DEFAULT_SIZE = 11;
+	private static final int DEFAULT_ARITY = 4;
+
+	public DaryHeap(int arity, int initialCapacity) {
+		if (arity < 2)
+			throw new IllegalArgumentException("Arity must be at least 2.");
+		if (initialCapacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1.");
+		this.arity = arity;
+		this.currentSize = 0;
+		this.elements = newArray(initialCapacity);
+	}
+
+	public DaryHeap(int arity) {
+		this(arity, DEFAULT_SIZE);
+	}
+
+	public DaryHeap() {
+		this(DEFAULT_ARITY);
+	}
+
+	@Override
+	public void add(E e) {
+		if (e == null)
+			throw new IllegalArgumentException("Value cannot be null.");
+		if (currentSize == elements.length)
+			reAllocate();
+		/* Start at the end and move up while the parent is greater */
+		int position = currentSize++;
+		while (position > 0) {
+			int parent = (position - 1) / arity;
+			if (e.compareTo(elements[parent]) >= 0)
+				break;
+			elements[position] = elements[parent];
+			position = parent;
+		}
+		elements[position] = e;
+	}
+
+	private void reAllocate() {
+		/* create a new array with twice the size */
+		E newElements[] = newArray(2 * elements.length);
+		System.arraycopy(elements, 0, newElements, 0, currentSize);
+		elements = newElements;
+	}
+
+	/* Arrays of a type parameter can't be created directly, this is the only unchecked cast */
+	@SuppressWarnings("unchecked")
+	private static <E extends Comparable<? super E>> E[] newArray(int length) {
+		return (E[]) new Comparable<?>[length];
+	}
+
+	@Override
+	public E min() {
+		return isEmpty() ? null : elements[0];
+	}
+
+	@Override
+	public E removeMin() {
+		if (isEmpty())
+			return null;
+		E result = elements[0];
+		E last = elements[--currentSize];
+		elements[currentSize] = null;
+
+		/* Put the last element at the root and move it down while a child is smaller */
+		if (currentSize > 0) {
+			int position = 0;
+			while (true) {
+				int first = arity * position + 1;
+				if (first >= currentSize)
+					break;
+				int end = Math.min(first + arity, currentSize);
+				int child = first;
+				for (int i = first + 1; i < end; i++)
+					if (elements[i].compareTo(elements[child]) < 0)
+						child = i; // Smallest of the children
+				if (last.compareTo(elements[child]) <= 0)
+					break;
+				elements[position] = elements[child];
+				position = child;
+			}
+			elements[position] = last;
+		}
+		return result;
+	}
+
+	/**
+	 * @return Amount of children of every element
+	 */
+	public int arity() {
+		return arity;
+	}
+
+	@Override
+	public int size() {
+		return currentSize;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < currentSize; i++)
+			elements[i] = null;
+		currentSize = 0;
+	}
+}
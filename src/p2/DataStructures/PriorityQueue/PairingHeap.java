@@ -0,0 +1,129 @@
+package p2.DataStructures.PriorityQueue;
+
+/**
+ * Implementation of the Priority Queue ADT using a pairing heap
+ *
+ * The heap is a tree where every node is never greater than its children. A
+ * node keeps its first child and its next sibling, so any number of children
+ * fit without arrays. Adding an element just links it with the root, in
+ * constant time. Removing the smallest element merges the children of the
+ * root in pairs from left to right, and then merges the pairs from right to
+ * left, which takes O(log n) amortized time.
+ *
+ * Both passes are done with loops, so very wide trees don't overflow the
+ * stack.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ *
+ * @param <E> Generic comparable data type for elements to insert
+ */
+public class PairingHeap<E extends Comparable<? super E>> implements PriorityQueue<E> {
+
+	private static class Node<E> {
+		private E value;
+		private Node<E> child; // First child
+		private Node<E> sibling; // Next sibling
+
+		public Node(E value) {
+			this.value = value;
+		}
+	}
+
+	// private fields
+	private Node<E> root;
+	private int currentSize;
+
+	public PairingHeap() {
+		root = null;
+		currentSize = 0;
+	}
+
+	@Override
+	public void add(E e) {
+		if (e == null)
+			throw new IllegalArgumentException("Value cannot be null.");
+		Node<E> newNode = new Node<>(e);
+		root = root == null ? newNode : link(root, newNode);
+		currentSize++;
+	}
+
+	/* Makes the greater of two roots the first child of the other one */
+	private Node<E> link(Node<E> a, Node<E> b) {
+		if (b.value.compareTo(a.value) < 0) {
+			Node<E> temp = a;
+			a = b;
+			b = temp;
+		}
+		b.sibling = a.child;
+		a.child = b;
+		return a;
+	}
+
+	@Override
+	public E min() {
+		return isEmpty() ? null : root.value;
+	}
+
+	@Override
+	public E removeMin() {
+		if (isEmpty())
+			return null;
+		E result = root.value;
+		Node<E> children = root.child;
+		root.child = null;
+		root.value = null;
+		root = mergePairs(children);
+		currentSize--;
+		return result;
+	}
+
+	/* Merges a list of siblings into a single tree with the two pass method */
+	private Node<E> mergePairs(Node<E> first) {
+		/* First pass: link the siblings in pairs from left to right, keeping the
+		 * results in a stack chained through the sibling field */
+		Node<E> stack = null;
+		while (first != null) {
+			Node<E> a = first;
+			Node<E> b = first.sibling;
+			if (b == null) {
+				a.sibling = stack;
+				stack = a;
+				break;
+			}
+			first = b.sibling;
+			a.sibling = null;
+			b.sibling = null;
+			Node<E> pair = link(a, b);
+			pair.sibling = stack;
+			stack = pair;
+		}
+
+		/* Second pass: link the pairs from right to left, the top of the stack is
+		 * the rightmost pair */
+		Node<E> result = null;
+		while (stack != null) {
+			Node<E> next = stack.sibling;
+			stack.sibling = null;
+			result = result == null ? stack : link(stack, result);
+			stack = next;
+		}
+		return result;
+	}
+
+	@Override
+	public int size() {
+		return currentSize;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public void clear() {
+		/* Let the GC handle the nodes */
+		root = null;
+		currentSize = 0;
+	}
+}
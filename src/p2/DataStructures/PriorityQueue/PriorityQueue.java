@@ -0,0 +1,55 @@
+package p2.DataStructures.PriorityQueue;
+
+/**
+ * Priority Queue Abstract Data Type
+ * 
+ * This ADT's main purpose is to give quick access to the smallest value
+ * stored, depending on how we compare elements to insert
+ * 
+ * @author Alejandro A. Perez Pabon - 802211489
+ *
+ * @param <E> Generic comparable data type for elements to insert
+ */
+public interface PriorityQueue<E extends Comparable<? super E>> {
+
+	/**
+	 * Add a new value to the queue.
+	 * 
+	 * @param e Value to be added to the queue
+	 * @throws IllegalArgumentException If the value e is null
+	 */
+	public void add(E e) throws IllegalArgumentException;
+
+	/**
+	 * Return the smallest value in the queue without removing it.
+	 * 
+	 * @return The smallest value in the queue, null if the queue is empty
+	 */
+	public E min();
+
+	/**
+	 * Remove the smallest value in the queue.
+	 * 
+	 * @return The value that was removed, null if the queue is empty
+	 */
+	public E removeMin();
+
+	/**
+	 * Return the amount of values in the queue.
+	 * 
+	 * @return The amount of values in the queue
+	 */
+	public int size();
+
+	/**
+	 * Determine whether the queue is empty.
+	 * 
+	 * @return True if the queue is empty, false otherwise.
+	 */
+	public boolean isEmpty();
+
+	/**
+	 * Remove all of the values from the queue.
+	 */
+	public void clear();
+}
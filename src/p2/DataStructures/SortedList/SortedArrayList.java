@@ -0,0 +1,134 @@
+package p2.DataStructures.SortedList;
+
+/**
+ * Implementation of a Sorted List using an array-based structure
+ *
+ * The elements are kept in ascending order in an array, so the position of a
+ * value is found with a binary search in O(log n) comparisons and
+ * {@code get(index)} is a single array access. Adding or removing still shifts
+ * the elements after the position, but with a single {@code System.arraycopy}
+ * instead of walking nodes. Equal values are added after the ones already
+ * in the list.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ * @param <E> Generic comparable data type for elements to insert
+ */
+public class SortedArrayList<E extends Comparable<? super E>> extends AbstractSortedList<E> {
+
+	// private fields
+	private E elements[];
+	private static final int DEFAULT_SIZE = 11;
+
+	public SortedArrayList(int initialCapacity) {
+		if (initialCapacity < 1)
+			throw new IllegalArgumentException("Capacity must be at least 1.");
+		this.elements = newArray(initialCapacity);
+		this.currentSize = 0;
+	}
+
+	public SortedArrayList() {
+		this(DEFAULT_SIZE);
+	}
+
+	/* Index of the first element that is not smaller than e (the size if there is none) */
+	private int lowerBound(E e) {
+		int low = 0, high = currentSize;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (elements[middle].compareTo(e) < 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/* Index of the first element that is greater than e (the size if there is none) */
+	private int upperBound(E e) {
+		int low = 0, high = currentSize;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (elements[middle].compareTo(e) <= 0)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	@Override
+	public void add(E e) {
+		if (e == null)
+			throw new IllegalArgumentException("Value cannot be null.");
+		if (currentSize == elements.length)
+			reAllocate();
+		int position = upperBound(e);
+		/* Move the greater elements one position to the right */
+		System.arraycopy(elements, position, elements, position + 1, currentSize - position);
+		elements[position] = e;
+		currentSize++;
+	}
+
+	private void reAllocate() {
+		/* create a new array with twice the size */
+		E newElements[] = newArray(2 * elements.length);
+		System.arraycopy(elements, 0, newElements, 0, currentSize);
+		elements = newElements;
+	}
+
+	/* Arrays of a type parameter can't be created directly, this is the only unchecked cast */
+	@SuppressWarnings("unchecked")
+	private static <E extends Comparable<? super E>> E[] newArray(int length) {
+		return (E[]) new Comparable<?>[length];
+	}
+
+	@Override
+	public boolean remove(E e) {
+		int position = firstIndex(e);
+		if (position < 0)
+			return false;
+		removeIndex(position);
+		return true;
+	}
+
+	@Override
+	public E removeIndex(int index) {
+		if (index < 0 || index >= currentSize)
+			throw new IndexOutOfBoundsException();
+		E value = elements[index];
+		/* Move the following elements one position to the left */
+		System.arraycopy(elements, index + 1, elements, index, currentSize - index - 1);
+		elements[--currentSize] = null;
+		return value;
+	}
+
+	@Override
+	public int firstIndex(E e) {
+		int position = lowerBound(e);
+		if (position < currentSize && elements[position].compareTo(e) == 0)
+			return position;
+		return -1;
+	}
+
+	@Override
+	public E get(int index) {
+		if (index < 0 || index >= currentSize)
+			throw new IndexOutOfBoundsException();
+		return elements[index];
+	}
+
+	@Override
+	public void clear() {
+		for (int i = 0; i < currentSize; i++)
+			elements[i] = null;
+		currentSize = 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Comparable<E>[] toArray() {
+		Comparable<E>[] theArray = (Comparable<E>[]) new Comparable<?>[size()]; // Cannot use Object here
+		System.arraycopy(elements, 0, theArray, 0, currentSize);
+		return theArray;
+	}
+}
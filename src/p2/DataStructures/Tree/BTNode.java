@@ -110,8 +110,9 @@ public class BTNode<K extends Comparable<? super K>, V extends Comparable<? supe
 	 */
 	@Override
 	public int compareTo(BTNode<K, V> obj) {
-		if (this.key.compareTo(obj.getKey()) != 0) {
-			return this.key.compareTo(obj.getKey());
+		int result = this.key.compareTo(obj.getKey()); // Compare the keys only once
+		if (result != 0) {
+			return result;
 		}
 		return this.value.compareTo(obj.getValue());
 	}
@@ -0,0 +1,63 @@
+package p2.DataStructures.Tree;
+
+/**
+ * Huffman Tree Leaf Class
+ *
+ * A {@code BTNode<Integer, String>} orders Huffman leaves by their boxed
+ * weight and then by their symbol, so every comparison unboxes two
+ * {@code Integer}s and compares two strings. This node keeps the weight as a
+ * primitive {@code long} and replaces the symbol by an integer rank: the
+ * position of the symbol in symbol order.
+ *
+ * As long as the ranks follow the order of the symbols, comparing ranks gives
+ * the same order as comparing the symbols did, so a list of these nodes sorts
+ * exactly like a list of the equivalent {@code BTNode}s. Every comparison is
+ * then O(1) and allocation-free. The Huffman tree itself is built by
+ * {@code HuffmanTree}, which already compares primitive weights and ranks.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class HuffmanNode implements Comparable<HuffmanNode> {
+
+	private long weight;
+	private int rank; // Position of the symbol in symbol order
+	private String symbol;
+
+	/**
+	 * @param weight frequency of the symbol
+	 * @param rank   position of the symbol in symbol order (the char itself for
+	 *               one character symbols)
+	 * @param symbol the symbol
+	 */
+	public HuffmanNode(long weight, int rank, String symbol) {
+		this.weight = weight;
+		this.rank = rank;
+		this.symbol = symbol;
+	}
+
+	public long getWeight() {
+		return weight;
+	}
+
+	public int getRank() {
+		return rank;
+	}
+
+	public String getSymbol() {
+		return symbol;
+	}
+
+	/**
+	 * Compares by weight and then by rank, with no boxing or string comparisons
+	 *
+	 * @param obj HuffmanNode to compare to
+	 * @return negative if this node goes first, positive if it goes after the
+	 *         other node, 0 if both have the same weight and rank
+	 */
+	@Override
+	public int compareTo(HuffmanNode obj) {
+		if (weight != obj.weight)
+			return weight < obj.weight ? -1 : 1;
+		return Integer.compare(rank, obj.rank);
+	}
+}
@@ -1,19 +1,42 @@
 package p2;
 
-import java.io.BufferedReader;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.text.DecimalFormat;
-
-import p2.DataStructures.List.List;
-import p2.DataStructures.Map.HashTableSC;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import p2.Codec.BitBuffer;
+import p2.Codec.BitSink;
+import p2.Codec.BitWriter;
+import p2.Codec.BlockPipeline;
+import p2.Codec.CanonicalCode;
+import p2.Codec.CodeTable;
+import p2.Codec.FrequencyTable;
+import p2.Codec.HufBlockReader;
+import p2.Codec.HufFormat;
+import p2.Codec.HuffmanDecoder;
+import p2.Codec.HuffmanTree;
+import p2.Codec.LengthLimitedCode;
+import p2.DataStructures.Map.HashTableOA;
 import p2.DataStructures.Map.Map;
-import p2.DataStructures.SortedList.SortedLinkedList;
+import p2.DataStructures.Map.Object2IntCounterMap;
+import p2.DataStructures.SortedList.SortedArrayList;
 import p2.DataStructures.SortedList.SortedList;
 import p2.DataStructures.Tree.BTNode;
+import p2.DataStructures.Tree.HuffmanNode;
 import p2.Utils.BinaryTreePrinter;
+import p2.Utils.ChunkedFileReader;
+import p2.Utils.MappedFileReader;
 
 /**
  * The Huffman Encoding Algorithm
@@ -33,8 +56,61 @@ import p2.Utils.BinaryTreePrinter;
  */
 public class HuffmanCoding {
 
+	/**
+	 * With no arguments prints the results for inputData/input1.txt. Files can
+	 * also be compressed to the .huf format and back:
+	 * 
+	 * <pre>
+	 * java p2.HuffmanCoding compress input.txt output.huf [block size]
+	 * java p2.HuffmanCoding compress-bytes input.bin output.huf [block size]
+	 * java p2.HuffmanCoding decompress input.huf output.txt
+	 * </pre>
+	 * 
+	 * With a block size the file is compressed in block mode. compress-bytes
+	 * works on any file, see {@link #compress_mapped(Path, Path)}.
+	 */
 	public static void main(String[] args) {
-		HuffmanEncodedResult();
+		if (args.length == 0) {
+			HuffmanEncodedResult();
+			return;
+		}
+		boolean bytes = args[0].equals("compress-bytes");
+		boolean compress = bytes || args[0].equals("compress");
+		if (!(args.length == 3 || (compress && args.length == 4))
+				|| !(compress || args[0].equals("decompress"))) {
+			System.out.println("Usage: HuffmanCoding compress <input file> <output file> [block size]");
+			System.out.println("       HuffmanCoding compress-bytes <input file> <output file> [block size]");
+			System.out.println("       HuffmanCoding decompress <input file> <output file>");
+			return;
+		}
+		Path inputFile = Paths.get(args[1]);
+		Path outputFile = Paths.get(args[2]);
+		try {
+			long start = System.nanoTime();
+			if (bytes && args.length == 4)
+				compress_mapped(inputFile, outputFile, Integer.parseInt(args[3]));
+			else if (bytes)
+				compress_mapped(inputFile, outputFile);
+			else if (compress && args.length == 4)
+				compress(inputFile, outputFile, Integer.parseInt(args[3]));
+			else if (compress)
+				compress(inputFile, outputFile);
+			else
+				decompress(inputFile, outputFile);
+			double seconds = (System.nanoTime() - start) / 1e9;
+
+			long inputBytes = Files.size(inputFile);
+			long outputBytes = Files.size(outputFile);
+			/* The ratio and the speed are always measured against the original file */
+			long originalBytes = compress ? inputBytes : outputBytes;
+			long compressedBytes = compress ? outputBytes : inputBytes;
+			DecimalFormat d = new DecimalFormat("##.##");
+			System.out.println(args[1] + " (" + inputBytes + " bytes) -> " + args[2] + " (" + outputBytes + " bytes)");
+			System.out.println("Compressed size is " + d.format(originalBytes == 0 ? 0 : (100.0 * compressedBytes) / originalBytes)
+					+ "% of the original, " + d.format(originalBytes / 1e6 / seconds) + " MB/s");
+		} catch (IOException | IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+		}
 	}
 
 	/* This method just runs all the main methods developed or the algorithm */
@@ -47,8 +123,8 @@ public class HuffmanCoding {
 			Map<String, Integer> fD = compute_fd(data);
 			BTNode<Integer, String> huffmanRoot = huffman_tree(fD);
 			Map<String, String> encodedHuffman = huffman_code(huffmanRoot);
-			String output = encode(encodedHuffman, data);
-			process_results(fD, encodedHuffman, data, output);
+			BitBuffer output = encodeBits(encodedHuffman, data);
+			process_results(fD, encodedHuffman, data, output, LengthLimitedCode.DEFAULT_MAX_LENGTH);
 		} else
 			System.out.println("Input Data Is Empty! Try Again with a File that has data inside!");
 	}
@@ -57,41 +133,25 @@ public class HuffmanCoding {
 	 * Receives a file named in parameter inputFile (including its path), and
 	 * returns a single string with the contents.
 	 * 
+	 * The whole file is read, line breaks included, in chunks through a
+	 * {@code ChunkedFileReader}.
+	 * 
 	 * @param inputFile name of the file to be processed in the path inputData/
 	 * @return String with the information to be processed
 	 */
 	public static String load_data(String inputFile) {
-		BufferedReader in = null;
-		String line = "";
-
+		StringBuilder data = new StringBuilder();
 		try {
 			/**
-			 * We create a new reader that accepts UTF-8 encoding and extract the input
-			 * string from the file, and we return it
+			 * The reader decodes the file as UTF-8 and hands us the contents one chunk at
+			 * a time, we just add every chunk to the result. If the input file is empty
+			 * the result is an empty string
 			 */
-			in = new BufferedReader(new InputStreamReader(new FileInputStream("inputData/" + inputFile), "UTF-8"));
-
-			/**
-			 * If input file is empty just return an empty string, if not just extract the
-			 * data
-			 */
-			String extracted = in.readLine();
-			if (extracted != null)
-				line = extracted;
-
-		} catch (FileNotFoundException e) {
-			e.printStackTrace();
+			ChunkedFileReader.read(Paths.get("inputData", inputFile), chunk -> data.append(chunk));
 		} catch (IOException e) {
 			e.printStackTrace();
-		} finally {
-			if (in != null)
-				try {
-					in.close();
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
 		}
-		return line;
+		return data.toString();
 	}
 
 	/**
@@ -101,39 +161,469 @@ public class HuffmanCoding {
 	 * returns a {@code Map} with the
 	 * frequency distribution of each character in the input string.
 	 * 
+	 * The letters are counted in a {@code FrequencyTable} and the map is only
+	 * built at the end, from the distinct letters found.
+	 * 
 	 * @author Alejandro A. Perez Pabon
 	 * @param inputString string to be processed
 	 * @return Map with the frequency distribution of each character of the input
 	 *         string
 	 */
 	public static Map<String, Integer> compute_fd(String inputString) {
-		Map<String, Integer> frequencyDistribution = new HashTableSC<String, Integer>();
-		String character = ""; // A string to save every letter
-		// Edge case if the input string is empty
-		if (inputString.isEmpty())
-			return frequencyDistribution;
-		// Loop through the input string and add the letters to the map
-		for (int i = 0; i < inputString.length(); i++) {
-			character = inputString.substring(i, i + 1); // Get the letter at the current index of the string
-			if (frequencyDistribution.get(character) == null) { // If the letter is not in the map add it
-				frequencyDistribution.put(character, 1);
-			} else {
-				frequencyDistribution.put(character, frequencyDistribution.get(character) + 1); // If the letter is in
-																								// the map add 1 to its
-																								// value
+		return compute_histogram(inputString).toMap();
+	}
+
+	/**
+	 * Computes the frequency distribution of the input into a
+	 * {@code FrequencyTable}, a flat array with one counter per char. Counting a
+	 * letter is a single array increment with no allocations.
+	 * 
+	 * Large inputs are split into segments that are counted in parallel and then
+	 * merged, small ones (like the files in inputData/) are counted by a single
+	 * thread.
+	 * 
+	 * @param input characters to be counted
+	 * @return Table with the frequency of each character of the input
+	 */
+	public static FrequencyTable compute_histogram(CharSequence input) {
+		return FrequencyTable.countParallel(input);
+	}
+
+	/**
+	 * Computes the frequency distribution of the remaining bytes of the buffer,
+	 * with a table of the 256 byte values. Large buffers are counted in parallel
+	 * like {@link #compute_histogram(CharSequence)}. The position of the buffer is
+	 * not changed.
+	 * 
+	 * @param input bytes to be counted
+	 * @return Table with the frequency of each byte value of the input
+	 */
+	public static FrequencyTable compute_histogram(ByteBuffer input) {
+		return FrequencyTable.countParallel(input);
+	}
+
+	/**
+	 * Computes the frequency distribution of a file of any size. The file is read
+	 * in fixed size chunks and each chunk is added to the distribution, so only
+	 * one chunk of the file is in memory at a time. Each character can appear at
+	 * most {@code Integer.MAX_VALUE} times.
+	 * 
+	 * @param inputFile path of the file to be processed
+	 * @return Table with the frequency of each character of the file
+	 * @throws IOException if the file cannot be read, or a character appears too
+	 *                     many times
+	 */
+	public static FrequencyTable stream_fd(Path inputFile) throws IOException {
+		FrequencyTable frequencies = new FrequencyTable();
+		try {
+			ChunkedFileReader.read(inputFile, chunk -> frequencies.add(chunk));
+		} catch (ArithmeticException e) {
+			throw new IOException("A character appears more than " + Integer.MAX_VALUE + " times.", e);
+		}
+		return frequencies;
+	}
+
+	/**
+	 * Second pass over a file: reads it again in fixed size chunks and encodes
+	 * every chunk into the sink.
+	 * 
+	 * @param inputFile path of the file to be encoded
+	 * @param codeTable Table with the Huffman code for each symbol of the file
+	 * @param output    where the encoded bits are appended
+	 * @throws IOException if the file cannot be read
+	 */
+	public static void stream_encode(Path inputFile, CodeTable codeTable, BitSink output) throws IOException {
+		ChunkedFileReader.read(inputFile, chunk -> codeTable.encode(chunk, output));
+	}
+
+	/**
+	 * Encodes a file of any size into another file with bounded memory. The first
+	 * pass computes the frequency distribution, and after building the Huffman
+	 * codes a second pass streams the packed bits to the output file.
+	 * 
+	 * @param inputFile  path of the file to be encoded
+	 * @param outputFile path of the file where the packed bits are written
+	 * @return Map with the Huffman code used for each symbol, needed to decode
+	 *         the output. Empty if the input file is empty
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public static Map<String, String> encode_file(Path inputFile, Path outputFile) throws IOException {
+		FrequencyTable fD = stream_fd(inputFile);
+		CodeTable codeTable = HuffmanTree.build(fD).codeTable();
+
+		try (FileChannel out = FileChannel.open(outputFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			BitWriter writer = new BitWriter(out);
+			if (!fD.isEmpty())
+				stream_encode(inputFile, codeTable, writer);
+			writer.finish();
+		}
+		return codeTable.toMap();
+	}
+
+	/**
+	 * Compresses a file into a self-describing .huf file (see {@code HufFormat}).
+	 * 
+	 * Works like {@link #encode_file(Path, Path)}, but the output stores the
+	 * canonical code lengths, the amount of symbols and a checksum next to the
+	 * packed bits, so it can be decompressed without anything else. The first pass
+	 * computes the frequency distribution and the checksum, and the second one
+	 * streams the packed bits, so memory stays bounded for any file size.
+	 * 
+	 * The input is read as UTF-8 text, invalid bytes are replaced by U+FFFD like
+	 * {@link #load_data(String)} does.
+	 * 
+	 * @param inputFile  path of the file to be compressed
+	 * @param outputFile path of the .huf file to be written
+	 * @return size of the .huf file in bytes
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public static long compress(Path inputFile, Path outputFile) throws IOException {
+		FrequencyTable fD = new FrequencyTable();
+		HufFormat.Checksum checksum = new HufFormat.Checksum();
+		try {
+			ChunkedFileReader.read(inputFile, chunk -> {
+				fD.add(chunk);
+				checksum.update(chunk);
+			});
+		} catch (ArithmeticException e) {
+			throw tooManySymbols(e);
+		}
+		checkCounts(fD);
+		CodeTable codeTable = CanonicalCode.canonicalize(HuffmanTree.build(fD).codeTable());
+		HufFormat.Header header = new HufFormat.Header(HufFormat.ALPHABET_CHAR, fD.total(),
+				codeTable.encodedSize(fD), CanonicalCode.lengths(codeTable));
+		return write_huf(outputFile, header, checksum.value(), sink -> stream_encode(inputFile, codeTable, sink));
+	}
+
+	/**
+	 * Compresses any file, text or binary, into a .huf file with the byte
+	 * alphabet: every byte is a symbol, and nothing is decoded as UTF-8.
+	 * 
+	 * The input is memory mapped (see {@code MappedFileReader}), and both passes,
+	 * the frequency distribution and the encoding, read the bytes straight from
+	 * the mapped regions. The packed bits are written through a direct buffer, so
+	 * the heap used stays the same for any file size.
+	 * 
+	 * @param inputFile  path of the file to be compressed
+	 * @param outputFile path of the .huf file to be written
+	 * @return size of the .huf file in bytes
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public static long compress_mapped(Path inputFile, Path outputFile) throws IOException {
+		FrequencyTable fD = new FrequencyTable(FrequencyTable.BYTE_ALPHABET);
+		HufFormat.Checksum checksum = new HufFormat.Checksum();
+		try {
+			MappedFileReader.read(inputFile, region -> {
+				fD.add(region);
+				checksum.update(region);
+			});
+		} catch (ArithmeticException e) {
+			throw tooManySymbols(e);
+		}
+		checkCounts(fD);
+		CodeTable codeTable = CanonicalCode.canonicalize(HuffmanTree.build(fD).codeTable());
+		HufFormat.Header header = new HufFormat.Header(HufFormat.ALPHABET_BYTE, fD.total(),
+				codeTable.encodedSize(fD), CanonicalCode.lengths(codeTable));
+		return write_huf(outputFile, header, checksum.value(),
+				sink -> MappedFileReader.read(inputFile, region -> codeTable.encode(region, sink)));
+	}
+
+	/* The frequencies are counted in ints, a single code for more symbols could overflow them */
+	private static void checkCounts(FrequencyTable fD) throws IOException {
+		if (fD.total() > Integer.MAX_VALUE)
+			throw tooManySymbols(null);
+	}
+
+	/* A symbol counted more than Integer.MAX_VALUE times also means too many symbols for one code */
+	private static IOException tooManySymbols(ArithmeticException cause) {
+		return new IOException("Input has more than " + Integer.MAX_VALUE + " symbols, use block mode.", cause);
+	}
+
+	/* Second pass of a compression, encodes the whole input into the sink */
+	private interface EncodePass {
+		void encode(BitSink output) throws IOException;
+	}
+
+	/* Writes a .huf file: the header, the bits generated by the pass and the trailer */
+	private static long write_huf(Path outputFile, HufFormat.Header header, int checksum, EncodePass pass)
+			throws IOException {
+		try (FileChannel out = FileChannel.open(outputFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			writeFully(out, HufFormat.writeHeader(header));
+			BitWriter writer = new BitWriter(out);
+			try {
+				if (header.symbolCount() > 0)
+					pass.encode(writer);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			writer.finish();
+			if (writer.size() != header.bitCount())
+				throw new IOException("Input file changed while it was being compressed.");
+			writeFully(out, HufFormat.writeTrailer(checksum));
+			return out.position();
+		}
+	}
+
+	/**
+	 * Compresses a file into a block mode .huf file (see {@code HufFormat}).
+	 * 
+	 * The input is split in blocks of {@code blockSize} characters, and every
+	 * block gets its own Huffman code and checksum, so the blocks can be decoded
+	 * independently: in parallel, or only the ones needed (see
+	 * {@code HufBlockReader}). The file is read once and the blocks are encoded
+	 * by a {@code BlockPipeline} with one worker per processor, use the pipeline
+	 * directly to choose the amount of threads and the queue depth.
+	 * 
+	 * @param inputFile  path of the file to be compressed
+	 * @param outputFile path of the .huf file to be written
+	 * @param blockSize  amount of characters per block
+	 * @return size of the .huf file in bytes
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public static long compress(Path inputFile, Path outputFile, int blockSize) throws IOException {
+		BlockPipeline pipeline = new BlockPipeline(Runtime.getRuntime().availableProcessors(), blockSize,
+				BlockPipeline.DEFAULT_QUEUE_DEPTH);
+		return pipeline.compress(inputFile, outputFile);
+	}
+
+	/**
+	 * Compresses any file into a block mode .huf file with the byte alphabet. Like
+	 * {@link #compress(Path, Path, int)}, but the blocks are slices of the memory
+	 * mapped input, so every byte is a symbol and nothing is decoded as UTF-8.
+	 * 
+	 * @param inputFile  path of the file to be compressed
+	 * @param outputFile path of the .huf file to be written
+	 * @param blockSize  amount of bytes per block
+	 * @return size of the .huf file in bytes
+	 * @throws IOException if a file cannot be read or written
+	 */
+	public static long compress_mapped(Path inputFile, Path outputFile, int blockSize) throws IOException {
+		BlockPipeline pipeline = new BlockPipeline(Runtime.getRuntime().availableProcessors(), blockSize,
+				BlockPipeline.DEFAULT_QUEUE_DEPTH);
+		return pipeline.compressBytes(inputFile, outputFile);
+	}
+
+	/**
+	 * Decompresses a block mode .huf file written by
+	 * {@link #compress(Path, Path, int)}. The blocks are decoded in parallel with
+	 * the common pool, a few at a time, and written in order as UTF-8 text.
+	 * 
+	 * Files of the byte alphabet, written by
+	 * {@link #compress_mapped(Path, Path, int)}, are decoded in parallel straight
+	 * into the memory mapped output file. If a block is not valid the output is
+	 * emptied.
+	 * 
+	 * @param inputFile  path of the .huf file
+	 * @param outputFile path of the file where the original data is written
+	 * @return amount of symbols decoded
+	 * @throws IOException if a file cannot be read or written, or the input is not
+	 *                     a valid .huf file
+	 */
+	public static long decompress_blocks(Path inputFile, Path outputFile) throws IOException {
+		ForkJoinPool pool = ForkJoinPool.commonPool();
+		try (HufBlockReader reader = new HufBlockReader(inputFile)) {
+			if (reader.index().alphabet() == HufFormat.ALPHABET_BYTE) {
+				try (FileChannel out = FileChannel.open(outputFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+						StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+					try {
+						reader.decodeAll(out, pool);
+					} catch (IOException e) {
+						out.truncate(0);
+						throw e;
+					}
+				}
+				return reader.symbolCount();
+			}
+			if (reader.index().alphabet() != HufFormat.ALPHABET_CHAR)
+				throw new IOException("Invalid .huf file: Unsupported alphabet: " + reader.index().alphabet());
+			decode_text_blocks(reader, outputFile, pool);
+			return reader.symbolCount();
+		}
+	}
+
+	/* Decodes the blocks a few at a time and appends them to the output as UTF-8 */
+	private static void decode_text_blocks(HufBlockReader reader, Path outputFile, ForkJoinPool pool)
+			throws IOException {
+		try (Writer out = Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8)) {
+			int batch = Math.max(1, pool.getParallelism());
+			for (int first = 0; first < reader.blockCount(); first += batch)
+				for (String text : reader.decodeBlocks(first, Math.min(reader.blockCount(), first + batch), pool))
+					out.write(text);
+		}
+	}
+
+	/**
+	 * Decompresses a .huf file written by {@link #compress(Path, Path)} and writes
+	 * the original text as UTF-8. Files of the byte alphabet, written by
+	 * {@link #compress_mapped(Path, Path)}, are decoded into a memory mapped
+	 * output file, byte for byte. Block mode files are handed to
+	 * {@link #decompress_blocks(Path, Path)}.
+	 * 
+	 * The header, the size of the payload, the amount of decoded symbols and the
+	 * checksum are all verified, so a truncated or corrupted file is reported
+	 * instead of producing wrong output. The compressed file is memory mapped,
+	 * but the packed bits (and the decoded text, for the char alphabet) are kept
+	 * in memory, use block mode for files that don't fit.
+	 * 
+	 * @param inputFile  path of the .huf file
+	 * @param outputFile path of the file where the original text is written
+	 * @return amount of symbols decoded
+	 * @throws IOException if a file cannot be read or written, or the input is not
+	 *                     a valid .huf file
+	 */
+	public static long decompress(Path inputFile, Path outputFile) throws IOException {
+		if (HufBlockReader.isBlockFile(inputFile))
+			return decompress_blocks(inputFile, outputFile);
+		ByteBuffer in = MappedFileReader.map(inputFile);
+		HufFormat.Header header;
+		BitBuffer payload;
+		int checksum;
+		try {
+			header = HufFormat.readHeader(in);
+			payload = read_payload(in, header);
+			checksum = in.getInt();
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid .huf file: " + e.getMessage(), e);
+		}
+		if (header.alphabet() == HufFormat.ALPHABET_BYTE)
+			return decode_mapped(header, payload, checksum, outputFile);
+
+		String text;
+		try {
+			StringBuilder result = new StringBuilder((int) header.symbolCount());
+			if (header.symbolCount() > 0)
+				new HuffmanDecoder(header.codeTable()).decode(payload, 0, payload.size(), result);
+			if (result.length() != header.symbolCount())
+				throw new IllegalArgumentException("Symbol count does not match the header.");
+
+			HufFormat.Checksum actual = new HufFormat.Checksum();
+			actual.update(result);
+			if (actual.value() != checksum)
+				throw new IllegalArgumentException("Checksum does not match.");
+			text = result.toString();
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid .huf file: " + e.getMessage(), e);
+		}
+		Files.writeString(outputFile, text, StandardCharsets.UTF_8);
+		return text.length();
+	}
+
+	/* Verifies the sizes in the header against the data and reads the packed bits */
+	private static BitBuffer read_payload(ByteBuffer in, HufFormat.Header header) {
+		if (in.remaining() != header.payloadSize() + HufFormat.TRAILER_SIZE)
+			throw new IllegalArgumentException("Payload size does not match the header.");
+		if (header.symbolCount() > header.bitCount()) // Every symbol takes at least one bit
+			throw new IllegalArgumentException("Symbol count does not match the header.");
+		if (header.symbolCount() > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException("Too many symbols to decompress in memory.");
+		HufFormat.checkPadding(in, header.bitCount());
+		BitBuffer payload = BitBuffer.fromByteBuffer(in, header.bitCount());
+		if (header.symbolCount() == 0 && !payload.isEmpty())
+			throw new IllegalArgumentException("Payload size does not match the header.");
+		return payload;
+	}
+
+	/**
+	 * Compresses an array of bytes into a complete .huf file of the byte alphabet,
+	 * in memory. The result is the same file {@link #compress_mapped(Path, Path)}
+	 * writes for a file with these bytes, and the bytes are never converted to a
+	 * String.
+	 * 
+	 * @param input bytes to be compressed
+	 * @return contents of the .huf file
+	 */
+	public static byte[] compress_bytes(byte[] input) {
+		ByteBuffer data = ByteBuffer.wrap(input);
+		FrequencyTable fD = compute_histogram(data);
+		CodeTable codeTable = CanonicalCode.canonicalize(HuffmanTree.build(fD).codeTable());
+		HufFormat.Header header = new HufFormat.Header(HufFormat.ALPHABET_BYTE, fD.total(),
+				codeTable.encodedSize(fD), CanonicalCode.lengths(codeTable));
+		byte[] payload = input.length == 0 ? new byte[0] : encodeBits(codeTable, data).toByteArray();
+		HufFormat.Checksum checksum = new HufFormat.Checksum();
+		checksum.update(input, 0, input.length);
+
+		byte[] headerBytes = HufFormat.writeHeader(header);
+		ByteBuffer result = ByteBuffer.allocate(headerBytes.length + payload.length + HufFormat.TRAILER_SIZE);
+		result.put(headerBytes).put(payload).put(HufFormat.writeTrailer(checksum.value()));
+		return result.array();
+	}
+
+	/**
+	 * Decompresses a .huf file of the byte alphabet held in memory, written by
+	 * {@link #compress_bytes(byte[])} or {@link #compress_mapped(Path, Path)}.
+	 * The sizes and the checksum are verified like
+	 * {@link #decompress(Path, Path)} does.
+	 * 
+	 * @param input contents of the .huf file
+	 * @return the original bytes
+	 * @throws IllegalArgumentException if the input is not a valid .huf file of
+	 *                                  the byte alphabet
+	 */
+	public static byte[] decompress_bytes(byte[] input) {
+		ByteBuffer in = ByteBuffer.wrap(input);
+		HufFormat.Header header = HufFormat.readHeader(in);
+		if (header.alphabet() != HufFormat.ALPHABET_BYTE)
+			throw new IllegalArgumentException("File holds text, not bytes.");
+		BitBuffer payload = read_payload(in, header);
+		int checksum = in.getInt();
+
+		ByteBuffer result = ByteBuffer.allocate((int) header.symbolCount());
+		if (header.symbolCount() > 0)
+			new HuffmanDecoder(header.codeTable()).decode(payload, 0, payload.size(), result);
+		if (result.hasRemaining())
+			throw new IllegalArgumentException("Symbol count does not match the header.");
+
+		HufFormat.Checksum actual = new HufFormat.Checksum();
+		actual.update(result.array(), 0, result.capacity());
+		if (actual.value() != checksum)
+			throw new IllegalArgumentException("Checksum does not match.");
+		return result.array();
+	}
+
+	/*
+	 * Decodes the bytes of a byte alphabet file straight into the memory mapped
+	 * output file. If the data turns out to be invalid the output is emptied.
+	 */
+	private static long decode_mapped(HufFormat.Header header, BitBuffer payload, int checksum, Path outputFile)
+			throws IOException {
+		try (FileChannel out = FileChannel.open(outputFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			MappedByteBuffer result = out.map(FileChannel.MapMode.READ_WRITE, 0, header.symbolCount());
+			try {
+				if (header.symbolCount() > 0)
+					new HuffmanDecoder(header.codeTable()).decode(payload, 0, payload.size(), result);
+				if (result.hasRemaining())
+					throw new IllegalArgumentException("Symbol count does not match the header.");
+
+				HufFormat.Checksum actual = new HufFormat.Checksum();
+				actual.update(result.flip());
+				if (actual.value() != checksum)
+					throw new IllegalArgumentException("Checksum does not match.");
+			} catch (IllegalArgumentException e) {
+				out.truncate(0);
+				throw new IOException("Invalid .huf file: " + e.getMessage(), e);
 			}
+			return header.symbolCount();
 		}
-		return frequencyDistribution;
+	}
+
+	/* FileChannel.write may write only part of the buffer */
+	private static void writeFully(FileChannel out, byte[] bytes) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		while (buffer.hasRemaining())
+			out.write(buffer);
 	}
 
 	/**
 	 * Receives a {@code Map} with the frequency distribution and returns the root
 	 * node of the corresponding Huffman tree.
-	 * This method uses a {@code SortedList} to sort the map by the frequency of the
-	 * letters.
-	 * The main idea is in a loop, remove the two first elements of the list, create
-	 * a new node with the sum of the two
-	 * frequencies and add it to the list again, until the list has only one
+	 * This method uses a {@code PriorityQueue} to order the letters by their
+	 * frequency.
+	 * The main idea is in a loop, remove the two smallest elements of the queue,
+	 * create a new node with the sum of the two
+	 * frequencies and add it to the queue again, until the queue has only one
 	 * element, which is the root node of the tree.
 	 * 
 	 * @author Alejandro A. Perez Pabon
@@ -142,24 +632,7 @@ public class HuffmanCoding {
 	 * 
 	 */
 	public static BTNode<Integer, String> huffman_tree(Map<String, Integer> fD) {
-
-		BTNode<Integer, String> rootNode = null;
-		SortedLinkedList<BTNode<Integer, String>> fDSortedList = new SortedLinkedList<BTNode<Integer, String>>();
-
-		for (String key : fD.getKeys()) {
-			fDSortedList.add(new BTNode<Integer, String>(fD.get(key), key)); // Adding the letters to the list
-		}
-
-		for (int i = 0; i < fD.size() - 1; i++) {
-			BTNode<Integer, String> leftNode = fDSortedList.removeIndex(0); // Removing the first element
-			BTNode<Integer, String> rightNode = fDSortedList.removeIndex(0); // Removing the second element
-			BTNode<Integer, String> parent = new BTNode<>(leftNode.getKey() + rightNode.getKey(),
-					leftNode.getValue() + rightNode.getValue());
-			parent.setLeftChild(leftNode);
-			parent.setRightChild(rightNode);
-			fDSortedList.add(parent); // Adding the parent node to the list
-		}
-		rootNode = fDSortedList.removeIndex(0); // Removing the root node
+		BTNode<Integer, String> rootNode = build_tree(FrequencyTable.fromMap(fD));
 
 		/*
 		 * Use this method to see full Huffman Tree built with the generated root node
@@ -169,6 +642,68 @@ public class HuffmanCoding {
 		return rootNode;
 	}
 
+	/**
+	 * Builds the Huffman tree straight from a {@code FrequencyTable}, without
+	 * printing it, for callers that work with large inputs where printing the
+	 * tree is not practical.
+	 * 
+	 * The tree is built as a compact {@code HuffmanTree} and then converted to
+	 * {@code BTNode}s for the original API. Callers that don't need the
+	 * {@code BTNode}s can use {@link HuffmanTree#build(FrequencyTable)} directly.
+	 * 
+	 * @param fD Table with the frequency of each character
+	 * @return The root node of the corresponding Huffman tree
+	 */
+	public static BTNode<Integer, String> build_tree(FrequencyTable fD) {
+		return HuffmanTree.build(fD).toBTNode();
+	}
+
+	/**
+	 * Builds the Huffman tree straight from a primitive counter, whose symbols can
+	 * be strings of any length (words, byte pairs...). The counts are never boxed
+	 * into a {@code Map}. Ties between equal frequencies are broken by symbol
+	 * order, like huffman_tree does for characters. The tree is not printed.
+	 * 
+	 * @param fD Counter with the frequency of each symbol
+	 * @return The root node of the corresponding Huffman tree, null if the counter
+	 *         is empty
+	 */
+	public static BTNode<Integer, String> huffman_tree(Object2IntCounterMap<String> fD) {
+		/* Every symbol is identified in the tree by its rank in symbol order */
+		String[] symbols = new String[fD.size()];
+		int[] counts = new int[symbols.length];
+		int[] next = { 0 };
+		fD.forEach((symbol, count) -> {
+			symbols[next[0]] = symbol;
+			counts[next[0]++] = count;
+		});
+		sort_by_symbol(symbols, counts);
+		return HuffmanTree.build(counts).toBTNode(symbols);
+	}
+
+	/**
+	 * Sorts the symbols in string order and moves each count along with its
+	 * symbol, so the counts don't have to be looked up again by symbol.
+	 * 
+	 * @param symbols distinct symbols
+	 * @param counts  count of each symbol, in the same order
+	 */
+	private static void sort_by_symbol(String[] symbols, int[] counts) {
+		Integer[] order = new Integer[symbols.length];
+		for (int i = 0; i < order.length; i++)
+			order[i] = i;
+		Arrays.sort(order, (a, b) -> symbols[a].compareTo(symbols[b]));
+
+		String[] sortedSymbols = new String[symbols.length];
+		int[] sortedCounts = new int[counts.length];
+		for (int rank = 0; rank < order.length; rank++) {
+			sortedSymbols[rank] = symbols[order[rank]];
+			sortedCounts[rank] = counts[order[rank]];
+		}
+		System.arraycopy(sortedSymbols, 0, symbols, 0, symbols.length);
+		System.arraycopy(sortedCounts, 0, counts, 0, counts.length);
+	}
+
 	/**
 	 * The method receives a {@code Map} with the frequency distribution of each character
 	 * and calls a recursive method to generate the Huffman code for each symbol.
@@ -178,7 +713,7 @@ public class HuffmanCoding {
 	 * @return Map with the Huffman code for each symbol
 	 */
 	public static Map<String, String> huffman_code(BTNode<Integer, String> huffmanRoot) {
-		Map<String, String> resultCodes = new HashTableSC<>();
+		Map<String, String> resultCodes = new HashTableOA<>();
 		recHuffman_code(huffmanRoot, resultCodes, "");
 		// Add an edge case if the input is a single character
 		if (huffmanRoot.isLeaf()) {
@@ -187,6 +722,26 @@ public class HuffmanCoding {
 		return resultCodes;
 	}
 
+	/**
+	 * Generates the Huffman code for each symbol, either from the shape of the
+	 * tree like {@link #huffman_code(BTNode)} does, or as canonical codes.
+	 * 
+	 * Canonical codes keep the code length the tree gives each symbol, so the
+	 * encoded size is the same, but the codes are assigned in (length, symbol)
+	 * order. That way the codes can be rebuilt from the lengths alone, see
+	 * {@code CanonicalCode}.
+	 * 
+	 * @param huffmanRoot root of the Huffman tree
+	 * @param canonical   true for canonical codes, false for the codes given by
+	 *                    the shape of the tree
+	 * @return Map with the Huffman code for each symbol
+	 */
+	public static Map<String, String> huffman_code(BTNode<Integer, String> huffmanRoot, boolean canonical) {
+		if (!canonical)
+			return huffman_code(huffmanRoot);
+		return CanonicalCode.canonicalize(HuffmanDecoder.treeCodes(huffmanRoot)).toMap();
+	}
+
 	/**
 	 * Recursive method that goes through the Huffman tree and generates the Huffman
 	 * code for each symbol. If the node is a leaf, it adds the Huffman code to the
@@ -216,18 +771,60 @@ public class HuffmanCoding {
 	 * Receives the Huffman code map and the input string to generate and return the
 	 * encoded string.
 	 * 
+	 * The string is only a debug view of the packed bits generated by
+	 * {@link #encodeBits(Map, String)}, so it is built in linear time too.
+	 * 
 	 * @author Alejandro A. Perez Pabon
 	 * @param encodingMap Map with the Huffman code for each symbol
 	 * @param inputString string to be encoded
 	 * @return Encoded string
 	 */
 	public static String encode(Map<String, String> encodingMap, String inputString) {
-		String encodedString = ""; // String to save the encoded string
-		for (int i = 0; i < inputString.length(); i++) {
-			encodedString += encodingMap.get(inputString.substring(i, i + 1)); // Adding the Huffman code to the encoded
-																				// string
-		}
-		return encodedString;
+		return encodeBits(encodingMap, inputString).toString();
+	}
+
+	/**
+	 * Receives the Huffman code map and the input string to generate the encoded
+	 * bits packed into a {@code BitBuffer}, where every bit of the code really
+	 * takes one bit of memory instead of a whole character.
+	 * 
+	 * @param encodingMap Map with the Huffman code for each symbol
+	 * @param inputString string to be encoded
+	 * @return Buffer with the encoded bits
+	 */
+	public static BitBuffer encodeBits(Map<String, String> encodingMap, String inputString) {
+		return encodeBits(CodeTable.fromMap(encodingMap), inputString);
+	}
+
+	/**
+	 * Encodes the input string using a precomputed {@code CodeTable}. Every
+	 * character is resolved with an array lookup by its char value and its code
+	 * is appended straight into the buffer, so no strings are created and the
+	 * running time is linear in the length of the input.
+	 * 
+	 * @param codeTable   Table with the Huffman code for each symbol
+	 * @param inputString string to be encoded
+	 * @return Buffer with the encoded bits
+	 */
+	public static BitBuffer encodeBits(CodeTable codeTable, String inputString) {
+		BitBuffer encodedBits = new BitBuffer();
+		codeTable.encode(inputString, encodedBits);
+		return encodedBits;
+	}
+
+	/**
+	 * Encodes the remaining bytes of the buffer using a {@code CodeTable} of the
+	 * byte alphabet. Every byte is resolved with an array lookup by its unsigned
+	 * value. The position of the buffer is not changed.
+	 * 
+	 * @param codeTable Table with the Huffman code for each byte value
+	 * @param input     bytes to be encoded
+	 * @return Buffer with the encoded bits
+	 */
+	public static BitBuffer encodeBits(CodeTable codeTable, ByteBuffer input) {
+		BitBuffer encodedBits = new BitBuffer();
+		codeTable.encode(input, encodedBits);
+		return encodedBits;
 	}
 
 	/**
@@ -235,9 +832,8 @@ public class HuffmanCoding {
 	 * the input string, and the output string, and prints the results to the screen
 	 * (per specifications).
 	 * 
-	 * Output Includes: symbol, frequency and code. Also includes how many bits has
-	 * the original and encoded string, plus how much space was saved using this
-	 * encoding algorithm
+	 * The output string is packed into a {@code BitBuffer} so the results report
+	 * the real size of the encoded data.
 	 * 
 	 * @param fD             Frequency Distribution of all the characters in input
 	 *                       string
@@ -247,6 +843,26 @@ public class HuffmanCoding {
 	 */
 	public static void process_results(Map<String, Integer> fD, Map<String, String> encodedHuffman, String inputData,
 			String output) {
+		process_results(fD, encodedHuffman, inputData, BitBuffer.fromString(output));
+	}
+
+	/**
+	 * Receives the frequency distribution map, the Huffman Prefix Code HashTable,
+	 * the input string, and the encoded bits, and prints the results to the screen
+	 * (per specifications).
+	 * 
+	 * Output Includes: symbol, frequency and code. Also includes how many bytes has
+	 * the original and encoded string, plus how much space was saved using this
+	 * encoding algorithm
+	 * 
+	 * @param fD             Frequency Distribution of all the characters in input
+	 *                       string
+	 * @param encodedHuffman Prefix Code Map
+	 * @param inputData      text string from the input file
+	 * @param output         processed encoded bits
+	 */
+	public static void process_results(Map<String, Integer> fD, Map<String, String> encodedHuffman, String inputData,
+			BitBuffer output) {
 		/*
 		 * To get the bytes of the input string, we just get the bytes of the original
 		 * string with string.getBytes().length
@@ -254,17 +870,12 @@ public class HuffmanCoding {
 		int inputBytes = inputData.getBytes().length;
 
 		/**
-		 * For the bytes of the encoded one, it's not so easy.
-		 * 
-		 * Here we have to get the bytes the same way we got the bytes for the original
-		 * one but we divide it by 8, because 1 byte = 8 bits and our huffman code is in
-		 * bits (0,1), not bytes.
-		 * 
-		 * This is because we want to calculate how many bytes we saved by counting how
-		 * many bits we generated with the encoding
+		 * For the bytes of the encoded one, the bits are already packed in the buffer,
+		 * so we just ask it how many bytes it needs to store them (the last byte may be
+		 * partially filled).
 		 */
 		DecimalFormat d = new DecimalFormat("##.##");
-		double outputBytes = Math.ceil((float) output.getBytes().length / 8);
+		double outputBytes = output.byteSize();
 
 		/**
 		 * to calculate how much space we saved we just take the percentage. the number
@@ -288,19 +899,26 @@ public class HuffmanCoding {
 		System.out.println("Symbol\t" + "Frequency   " + "Code");
 		System.out.println("------\t" + "---------   " + "----");
 
-		SortedList<BTNode<Integer, String>> sortedList = new SortedLinkedList<BTNode<Integer, String>>();
+		SortedList<HuffmanNode> sortedList = new SortedArrayList<HuffmanNode>(Math.max(1, fD.size()));
 
 		/**
 		 * To print the table in decreasing order by frequency, we do the same thing we
 		 * did when we built the tree.
 		 * 
 		 * We add each key with it's frequency in a node into a SortedList, this way we
-		 * get the frequencies in ascending order
+		 * get the frequencies in ascending order. Ties are broken by the rank of the
+		 * symbol in string order, which is what comparing the strings did.
 		 */
-		for (String key : fD.getKeys()) {
-			BTNode<Integer, String> node = new BTNode<Integer, String>(fD.get(key), key);
-			sortedList.add(node);
-		}
+		String[] symbols = new String[fD.size()];
+		int[] frequencies = new int[symbols.length];
+		int[] next = { 0 };
+		fD.forEach((key, frequency) -> {
+			symbols[next[0]] = key;
+			frequencies[next[0]++] = frequency;
+		});
+		sort_by_symbol(symbols, frequencies);
+		for (int rank = 0; rank < symbols.length; rank++)
+			sortedList.add(new HuffmanNode(frequencies[rank], rank, symbols[rank]));
 
 		/**
 		 * Since we have the frequencies in ascending order, we just traverse the list
@@ -311,8 +929,9 @@ public class HuffmanCoding {
 		 * That way we get the table in decreasing order by frequency
 		 */
 		for (int i = sortedList.size() - 1; i >= 0; i--) {
-			BTNode<Integer, String> node = sortedList.get(i);
-			System.out.println(node.getValue() + "\t" + node.getKey() + "\t    " + encodedHuffman.get(node.getValue()));
+			HuffmanNode node = sortedList.get(i);
+			System.out.println(
+					node.getSymbol() + "\t" + node.getWeight() + "\t    " + encodedHuffman.get(node.getSymbol()));
 		}
 
 		System.out.println("\nOriginal String: \n" + inputData);
@@ -325,6 +944,41 @@ public class HuffmanCoding {
 		System.out.println("Difference in space requiered is " + savings + "%.");
 	}
 
+	/**
+	 * Prints the same results as {@link #process_results(Map, Map, String, BitBuffer)}
+	 * and also reports what limiting the codes to {@code maxCodeLength} bits would
+	 * cost.
+	 * 
+	 * The limited codes are computed with package-merge (see
+	 * {@code LengthLimitedCode}), and we compare how many bytes the encoded string
+	 * would need with them against the unlimited Huffman codes.
+	 * 
+	 * @param fD             Frequency Distribution of all the characters in input
+	 *                       string
+	 * @param encodedHuffman Prefix Code Map
+	 * @param inputData      text string from the input file
+	 * @param output         processed encoded bits
+	 * @param maxCodeLength  longest code allowed for the limited codes
+	 */
+	public static void process_results(Map<String, Integer> fD, Map<String, String> encodedHuffman, String inputData,
+			BitBuffer output, int maxCodeLength) {
+		process_results(fD, encodedHuffman, inputData, output);
+
+		FrequencyTable frequencies = FrequencyTable.fromMap(fD);
+		CodeTable limited = LengthLimitedCode.codeTable(frequencies, maxCodeLength);
+		long limitedBits = limited.encodedSize(frequencies);
+		long limitedBytes = (limitedBits + 7) / 8;
+
+		/*
+		 * The cost is how much bigger the encoded string gets, compared to the bits
+		 * generated with the unlimited codes
+		 */
+		DecimalFormat d = new DecimalFormat("##.##");
+		String cost = d.format(output.size() == 0 ? 0 : (100.0 * (limitedBits - output.size())) / output.size());
+		System.out.println("With codes limited to " + maxCodeLength + " bits the encoded string requires "
+				+ limitedBytes + " bytes (" + cost + "% more bits).");
+	}
+
 	/*************************************************************************************
 	 ** ADD ANY AUXILIARY METHOD YOU WISH TO IMPLEMENT TO FACILITATE YOUR SOLUTION HERE **
 	 *************************************************************************************/
@@ -332,34 +986,34 @@ public class HuffmanCoding {
 	/**
 	 * Auxiliary Method that decodes the generated string by the Huffman Coding Algorithm
 	 * 
-	 * Used for output Purposes
+	 * Used for output Purposes. The string is packed into bits and decoded with a
+	 * {@code HuffmanDecoder} built once from the lookup table, so the table is not
+	 * searched for every bit of the output.
 	 * 
 	 * @param output      - Encoded String
-	 * @param lookupTable
+	 * @param lookupTable - Map with the Huffman code for each symbol
 	 * @return The decoded String, this should be the original input string parsed
 	 *         from the input file
 	 */
 	public static String decodeHuff(String output, Map<String, String> lookupTable) {
-		String result = "";
-		int start = 0;
-		List<String> prefixCodes = lookupTable.getValues();
-		List<String> symbols = lookupTable.getKeys();
-
-		/**
-		 * Loop through output until a prefix code is found on map and adding the symbol
-		 * that the code that represents it to result
-		 */
-		for (int i = 0; i <= output.length(); i++) {
-
-			String searched = output.substring(start, i);
-
-			int index = prefixCodes.firstIndex(searched);
+		if (output.isEmpty())
+			return "";
+		return new HuffmanDecoder(CodeTable.fromMap(lookupTable)).decode(BitBuffer.fromString(output));
+	}
 
-			if (index >= 0) { // Found it!
-				result = result + symbols.get(index);
-				start = i;
-			}
-		}
-		return result;
+	/**
+	 * Auxiliary Method that decodes the packed bits generated by
+	 * {@link #encodeBits(Map, String)} using a table driven
+	 * {@code HuffmanDecoder} built from the Huffman tree.
+	 * 
+	 * @param output      - Encoded bits
+	 * @param huffmanRoot - root of the Huffman tree used to encode the bits
+	 * @return The decoded String, this should be the original input string parsed
+	 *         from the input file
+	 */
+	public static String decodeBits(BitBuffer output, BTNode<Integer, String> huffmanRoot) {
+		if (output.isEmpty())
+			return "";
+		return HuffmanDecoder.fromTree(huffmanRoot).decode(output);
 	}
-}
\ No newline at end of file
+}
@@ -10,6 +10,9 @@ import p2.DataStructures.List.List;
  * @author MightyPork
  */
 public class BinaryTreePrinter {
+    /** Rows longer than this are printed in pieces, so deep trees don't need huge buffers */
+    private static final int FLUSH_SIZE = 1 << 16;
+
     /** Node that can be printed */
     public interface PrintableNode {
         /** Get left child */
@@ -32,8 +35,8 @@ public class BinaryTreePrinter {
     public static void print(PrintableNode root) {
         List<List<String>> lines = new ArrayList<List<String>>();
 
-        List<PrintableNode> level = new ArrayList<PrintableNode>();
-        List<PrintableNode> next = new ArrayList<PrintableNode>();
+        ArrayList<PrintableNode> level = new ArrayList<PrintableNode>();
+        ArrayList<PrintableNode> next = new ArrayList<PrintableNode>();
 
         level.add(root);
         int nn = 1;
@@ -41,7 +44,9 @@ public class BinaryTreePrinter {
         int widest = 0;
 
         while (nn != 0) {
-            List<String> line = new ArrayList<String>();
+            // Every node of this level has one entry in the line and two in the next level
+            List<String> line = new ArrayList<String>(level.size());
+            next.ensureCapacity(2 * level.size());
 
             nn = 0;
 
@@ -68,13 +73,15 @@ public class BinaryTreePrinter {
 
             lines.add(line);
 
-            List<PrintableNode> tmp = level;
+            ArrayList<PrintableNode> tmp = level;
             level = next;
             next = tmp;
             next.clear();
         }
 
         int perpiece = lines.get(lines.size() - 1).size() * (widest + 4);
+        // Each row is built first and printed at once, instead of one character at a time
+        StringBuilder row = new StringBuilder();
         for (int i = 0; i < lines.size(); i++) {
             List<String> line = lines.get(i);
             int hpw = (int) Math.floor(perpiece / 2f) - 1;
@@ -91,25 +98,27 @@ public class BinaryTreePrinter {
                             if (j < line.size() && line.get(j) != null) c = '+';
                         }
                     }
-                    System.out.print(c);
+                    row.append(c);
 
                     // lines and spaces
                     if (line.get(j) == null) {
                         for (int k = 0; k < perpiece - 1; k++) {
-                            System.out.print(" ");
+                            row.append(" ");
                         }
                     } else {
 
                         for (int k = 0; k < hpw; k++) {
-                            System.out.print(j % 2 == 0 ? " " : "=");
+                            row.append(j % 2 == 0 ? " " : "=");
                         }
-                        System.out.print(j % 2 == 0 ? "+" : "+");
+                        row.append(j % 2 == 0 ? "+" : "+");
                         for (int k = 0; k < hpw; k++) {
-                            System.out.print(j % 2 == 0 ? "=" : " ");
+                            row.append(j % 2 == 0 ? "=" : " ");
                         }
                     }
+                    flushIfFull(row);
                 }
-                System.out.println();
+                System.out.println(row);
+                row.setLength(0);
             }
 
             // print line of numbers
@@ -122,16 +131,25 @@ public class BinaryTreePrinter {
 
                 // a number
                 for (int k = 0; k < gap1; k++) {
-                    System.out.print(" ");
+                    row.append(" ");
                 }
-                System.out.print(f);
+                row.append(f);
                 for (int k = 0; k < gap2; k++) {
-                    System.out.print(" ");
+                    row.append(" ");
                 }
+                flushIfFull(row);
             }
-            System.out.println();
+            System.out.println(row);
+            row.setLength(0);
 
             perpiece /= 2;
         }
     }
+
+    private static void flushIfFull(StringBuilder row) {
+        if (row.length() >= FLUSH_SIZE) {
+            System.out.print(row);
+            row.setLength(0);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package p2.Utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Reads UTF-8 text files in fixed size chunks
+ *
+ * The file is read through a {@code FileChannel} into one reusable
+ * {@code ByteBuffer}, decoded into one reusable {@code CharBuffer}, and each
+ * chunk of characters is handed to a consumer. Only one chunk is in memory at
+ * a time, so files of any size can be processed.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class ChunkedFileReader {
+
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 16; // In bytes
+
+	/**
+	 * Reads the whole file, passing every decoded chunk to the consumer. The chunk
+	 * buffer is reused, so the consumer must not keep a reference to it.
+	 *
+	 * @param file      file to read
+	 * @param chunkSize amount of bytes read from the file at a time
+	 * @param consumer  receives each chunk of characters, in order
+	 * @return amount of characters read
+	 * @throws IOException if the file cannot be read
+	 */
+	public static long read(Path file, int chunkSize, Consumer<CharBuffer> consumer) throws IOException {
+		if (chunkSize < 4)
+			throw new IllegalArgumentException("Chunk size must be at least 4.");
+		/* Malformed input is replaced, just like InputStreamReader does */
+		CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		ByteBuffer bytes = ByteBuffer.allocate(chunkSize);
+		CharBuffer chars = CharBuffer.allocate(chunkSize); // UTF-8 never decodes to more chars than bytes
+		long total = 0;
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			boolean endOfFile = false;
+			while (!endOfFile) {
+				endOfFile = channel.read(bytes) == -1;
+				bytes.flip();
+				decoder.decode(bytes, chars, endOfFile);
+				if (endOfFile)
+					decoder.flush(chars);
+				chars.flip();
+				if (chars.hasRemaining()) {
+					total += chars.remaining();
+					consumer.accept(chars);
+				}
+				chars.clear();
+				bytes.compact(); // Keep any incomplete character for the next chunk
+			}
+		}
+		return total;
+	}
+
+	public static long read(Path file, Consumer<CharBuffer> consumer) throws IOException {
+		return read(file, DEFAULT_CHUNK_SIZE, consumer);
+	}
+}
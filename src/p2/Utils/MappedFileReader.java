@@ -0,0 +1,70 @@
+package p2.Utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Reads files of raw bytes through memory maps
+ *
+ * The file is mapped with {@code FileChannel.map} one region at a time and
+ * every region is handed to a consumer as is. The bytes are read straight
+ * from the page cache: they are not copied into the heap and not decoded into
+ * chars, so the heap used does not depend on the size of the file.
+ *
+ * A mapping is released when its buffer is garbage collected, so consumers
+ * must not keep a reference to the regions.
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class MappedFileReader {
+
+	public static final long DEFAULT_REGION_SIZE = 1L << 26; // In bytes
+
+	/**
+	 * Maps the whole file, region by region, passing every region to the
+	 * consumer. Each region starts at position 0 and ends at its limit.
+	 *
+	 * @param file       file to read
+	 * @param regionSize most bytes mapped at a time
+	 * @param consumer   receives each region of the file, in order
+	 * @return amount of bytes read
+	 * @throws IOException if the file cannot be read
+	 */
+	public static long read(Path file, long regionSize, Consumer<ByteBuffer> consumer) throws IOException {
+		if (regionSize < 1 || regionSize > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Region size must be between 1 and " + Integer.MAX_VALUE + ".");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			for (long position = 0; position < size; position += regionSize) {
+				MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position,
+						Math.min(regionSize, size - position));
+				consumer.accept(region);
+			}
+			return size;
+		}
+	}
+
+	public static long read(Path file, Consumer<ByteBuffer> consumer) throws IOException {
+		return read(file, DEFAULT_REGION_SIZE, consumer);
+	}
+
+	/**
+	 * Maps a whole file in one region, for files that must be read at random
+	 *
+	 * @param file file to map
+	 * @return the contents of the file
+	 * @throws IOException if the file cannot be read or is larger than 2 GB
+	 */
+	public static ByteBuffer map(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE)
+				throw new IOException("File is too large to be mapped at once: " + file);
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+}
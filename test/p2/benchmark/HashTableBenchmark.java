@@ -0,0 +1,61 @@
+package p2.benchmark;
+
+import java.util.Arrays;
+
+import p2.DataStructures.Map.HashTableSC;
+
+/**
+ * Measures the latency of every single put into a HashTableSC, comparing
+ * resizing the whole table at once with moving the buckets incrementally.
+ *
+ * Run with: java p2.benchmark.HashTableBenchmark [puts] [rounds]
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class HashTableBenchmark {
+
+	public static void main(String[] args) {
+		int puts = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		Integer[] keys = new Integer[puts];
+		for (int i = 0; i < puts; i++)
+			keys[i] = i * 31 + 7;
+
+		System.out.printf("%d puts per round, %d rounds (the first one is warmup)%n", puts, rounds);
+		System.out.printf("%-12s %10s %10s %10s %11s %12s %10s%n", "mode", "p50 (ns)", "p99 (ns)", "p99.9 (ns)",
+				"p99.99 (ns)", "max (ns)", "> 100 us");
+		for (int round = 0; round < rounds; round++) {
+			boolean print = round > 0;
+			run("all at once", keys, false, print);
+			run("incremental", keys, true, print);
+		}
+	}
+
+	private static void run(String name, Integer[] keys, boolean incremental, boolean print) {
+		HashTableSC<Integer, Integer> table = new HashTableSC<>(11, 0.75, incremental, (key) -> key.hashCode());
+		long[] latency = new long[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			long start = System.nanoTime();
+			table.put(keys[i], keys[i]);
+			latency[i] = System.nanoTime() - start;
+		}
+		if (table.size() != keys.length)
+			throw new IllegalStateException("Lost keys");
+		if (!print)
+			return;
+
+		Arrays.sort(latency);
+		int slow = 0;
+		for (long l : latency)
+			if (l > 100_000)
+				slow++;
+		System.out.printf("%-12s %10d %10d %10d %11d %12d %10d%n", name, percentile(latency, 0.50),
+				percentile(latency, 0.99), percentile(latency, 0.999), percentile(latency, 0.9999),
+				latency[latency.length - 1], slow);
+	}
+
+	private static long percentile(long[] sorted, double p) {
+		return sorted[Math.min(sorted.length - 1, (int) (p * sorted.length))];
+	}
+}
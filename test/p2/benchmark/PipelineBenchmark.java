@@ -0,0 +1,76 @@
+package p2.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import p2.Codec.BlockPipeline;
+
+/**
+ * Measures the throughput of the block pipeline with 1, 2, 4... threads up to
+ * the amount of processors, to see how it scales with the core count.
+ *
+ * Without an input file a random text of 64 MB is generated. Every thread
+ * count is run a few times and the best time is reported.
+ *
+ * Run with: java p2.benchmark.PipelineBenchmark [input file] [block size]
+ * [queue depth] [rounds]
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class PipelineBenchmark {
+
+	public static void main(String[] args) throws IOException {
+		Path input = args.length > 0 ? Paths.get(args[0]) : generate(64 << 20);
+		int blockSize = args.length > 1 ? Integer.parseInt(args[1]) : BlockPipeline.DEFAULT_BLOCK_SIZE;
+		int queueDepth = args.length > 2 ? Integer.parseInt(args[2]) : BlockPipeline.DEFAULT_QUEUE_DEPTH;
+		int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+		Path output = Files.createTempFile("pipeline", ".huf");
+
+		int processors = Runtime.getRuntime().availableProcessors();
+		double inputMB = Files.size(input) / 1e6;
+		System.out.printf("%.1f MB, block size %d, queue depth %d, %d processors%n", inputMB, blockSize, queueDepth,
+				processors);
+		System.out.printf("%-8s %10s %10s%n", "threads", "MB/s", "speedup");
+
+		/* Warmup, so the first thread count is not measured cold */
+		new BlockPipeline(processors, blockSize, queueDepth).compress(input, output);
+
+		double single = 0;
+		int threads = 1;
+		while (true) {
+			BlockPipeline pipeline = new BlockPipeline(threads, blockSize, queueDepth);
+			long best = Long.MAX_VALUE;
+			for (int round = 0; round < rounds; round++) {
+				long start = System.nanoTime();
+				pipeline.compress(input, output);
+				best = Math.min(best, System.nanoTime() - start);
+			}
+			double throughput = inputMB / (best / 1e9);
+			if (threads == 1)
+				single = throughput;
+			System.out.printf("%-8d %10.1f %10.2f%n", threads, throughput, throughput / single);
+			if (threads == processors)
+				break;
+			threads = Math.min(2 * threads, processors);
+		}
+
+		Files.delete(output);
+		if (args.length == 0)
+			Files.delete(input);
+	}
+
+	/* Random text with skewed letter frequencies, like natural language */
+	private static Path generate(int size) throws IOException {
+		String letters = "eeeeeeeeeeeetttttttttaaaaaaaaoooooooiiiiiiinnnnnnnsssssshhhhhhrrrrrrddddlllluuuccmmwwffggyyppbbvk       \n";
+		Random random = new Random(42);
+		byte[] text = new byte[size];
+		for (int i = 0; i < size; i++)
+			text[i] = (byte) letters.charAt(random.nextInt(letters.length()));
+		Path result = Files.createTempFile("pipeline", ".txt");
+		Files.write(result, text);
+		return result;
+	}
+}
@@ -0,0 +1,91 @@
+package p2.benchmark;
+
+import java.util.Random;
+
+import p2.DataStructures.PriorityQueue.BinaryHeap;
+import p2.DataStructures.PriorityQueue.DaryHeap;
+import p2.DataStructures.PriorityQueue.PairingHeap;
+import p2.DataStructures.PriorityQueue.PriorityQueue;
+import p2.DataStructures.SortedList.SortedArrayList;
+import p2.DataStructures.SortedList.SortedLinkedList;
+import p2.DataStructures.SortedList.SortedList;
+
+/**
+ * Compares the sorted lists and priority queues on the work huffman_tree and
+ * process_results do: add n values and then take them out in ascending order.
+ *
+ * The sorted lists need O(n^2) time to add n random values, so by default they
+ * are skipped above 10^5 elements. Pass "all" to run them anyway.
+ *
+ * Run with: java p2.benchmark.SortedListBenchmark [all]
+ *
+ * @author Alejandro A. Perez Pabon - 802211489
+ */
+public class SortedListBenchmark {
+
+	private static final int[] SIZES = { 100, 10_000, 1_000_000 };
+	private static final int QUADRATIC_LIMIT = 100_000;
+	/* Each measurement repeats the work until it adds up to this many elements */
+	private static final int ELEMENTS_PER_MEASUREMENT = 2_000_000;
+
+	private interface Workload {
+		public long run(Integer[] values);
+	}
+
+	public static void main(String[] args) {
+		boolean all = args.length > 0 && args[0].equals("all");
+
+		System.out.printf("%-18s %12s %16s%n", "structure", "elements", "ns per element");
+		for (int n : SIZES) {
+			Integer[] values = new Integer[n];
+			Random random = new Random(n);
+			for (int i = 0; i < n; i++)
+				values[i] = random.nextInt(); // Boxed beforehand so only the structures are measured
+
+			boolean quadratic = all || n <= QUADRATIC_LIMIT;
+			measure("SortedLinkedList", values, quadratic, v -> drain(new SortedLinkedList<Integer>(), v));
+			measure("SortedArrayList", values, quadratic, v -> drain(new SortedArrayList<Integer>(), v));
+			measure("BinaryHeap", values, true, v -> drain(new BinaryHeap<Integer>(), v));
+			measure("DaryHeap (d = 4)", values, true, v -> drain(new DaryHeap<Integer>(4), v));
+			measure("PairingHeap", values, true, v -> drain(new PairingHeap<Integer>(), v));
+			System.out.println();
+		}
+	}
+
+	private static void measure(String name, Integer[] values, boolean run, Workload workload) {
+		if (!run) {
+			System.out.printf("%-18s %12d %16s%n", name, values.length, "skipped");
+			return;
+		}
+		int repetitions = Math.max(1, ELEMENTS_PER_MEASUREMENT / values.length);
+		for (int i = 0; i < repetitions; i++) // Warmup
+			workload.run(values);
+		long checksum = 0;
+		long start = System.nanoTime();
+		for (int i = 0; i < repetitions; i++)
+			checksum += workload.run(values);
+		long elapsed = System.nanoTime() - start;
+		if (checksum == 42)
+			System.out.print(""); // Keeps the work from being optimized away
+		System.out.printf("%-18s %12d %16.1f%n", name, values.length, (double) elapsed / repetitions / values.length);
+	}
+
+	/* Adds every value and takes them out in ascending order, like removeMin does */
+	private static long drain(SortedList<Integer> list, Integer[] values) {
+		for (Integer value : values)
+			list.add(value);
+		long checksum = 0;
+		while (!list.isEmpty())
+			checksum = checksum * 31 + list.removeIndex(0);
+		return checksum;
+	}
+
+	private static long drain(PriorityQueue<Integer> queue, Integer[] values) {
+		for (Integer value : values)
+			queue.add(value);
+		long checksum = 0;
+		while (!queue.isEmpty())
+			checksum = checksum * 31 + queue.removeMin();
+		return checksum;
+	}
+}
@@ -2,16 +2,61 @@ package p2.test;
 
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.text.DecimalFormat;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import p2.HuffmanCoding;
+import p2.Codec.BitBuffer;
+import p2.Codec.BlockPipeline;
+import p2.Codec.CanonicalCode;
+import p2.Codec.CodeTable;
+import p2.Codec.FrequencyTable;
+import p2.Codec.HufBlockReader;
+import p2.Codec.HufBlockWriter;
+import p2.Codec.HufFormat;
+import p2.Codec.HuffmanBlock;
+import p2.Codec.HuffmanDecoder;
+import p2.Codec.HuffmanTree;
+import p2.Codec.LengthLimitedCode;
+import p2.DataStructures.List.ArrayList;
+import p2.DataStructures.List.BitList;
+import p2.DataStructures.List.IntArrayList;
+import p2.DataStructures.List.LinkedList;
+import p2.DataStructures.List.List;
+import p2.DataStructures.List.LongArrayList;
+import p2.DataStructures.Map.HashTableOA;
+import p2.DataStructures.Map.HashTableSC;
+import p2.DataStructures.Map.Int2IntCounterMap;
 import p2.DataStructures.Map.Map;
+import p2.DataStructures.Map.Object2IntCounterMap;
+import p2.DataStructures.PriorityQueue.BinaryHeap;
+import p2.DataStructures.PriorityQueue.DaryHeap;
+import p2.DataStructures.PriorityQueue.PairingHeap;
+import p2.DataStructures.PriorityQueue.PriorityQueue;
+import p2.DataStructures.SortedList.SortedArrayList;
 import p2.DataStructures.SortedList.SortedLinkedList;
 import p2.DataStructures.SortedList.SortedList;
 import p2.DataStructures.Tree.BTNode;
+import p2.DataStructures.Tree.HuffmanNode;
 
 public class P2Test1 {
 	
@@ -46,6 +91,25 @@ public class P2Test1 {
 		output = HuffmanCoding.encode(encodedHuffman, input);
 	}
 
+	/* Checks done on the files of a compression round trip */
+	private interface RoundTrip {
+		boolean check(Path original, Path compressed, Path decompressed) throws Exception;
+	}
+
+	/* Runs the checks with three empty temporary files, deleted afterwards */
+	private static boolean withTempFiles(RoundTrip roundTrip) throws Exception {
+		Path original = Files.createTempFile("p2", ".orig");
+		Path compressed = Files.createTempFile("p2", HufFormat.EXTENSION);
+		Path decompressed = Files.createTempFile("p2", ".out");
+		try {
+			return roundTrip.check(original, compressed, decompressed);
+		} finally {
+			Files.deleteIfExists(original);
+			Files.deleteIfExists(compressed);
+			Files.deleteIfExists(decompressed);
+		}
+	}
+
 	@Test
 	public void testEncoding() {
 		
@@ -55,6 +119,647 @@ public class P2Test1 {
 		assertTrue("Failed to encode correctly input string", check);
 	}
 	
+	@Test
+	public void testPackedEncoding() {
+		BitBuffer bits = HuffmanCoding.encodeBits(encodedHuffman, input);
+		
+		boolean check = bits.size() == 24 && bits.byteSize() == 3 
+				&& bits.toString().equals(output)
+				&& HuffmanCoding.decodeBits(bits, huffmanRoot).equals(input);
+		
+		assertTrue("Failed to pack encoded bits correctly", check);
+	}
+	
+	@Test
+	public void testCanonicalCode() {
+		Map<String, String> canonical = HuffmanCoding.huffman_code(huffmanRoot, true);
+		String canonicalOutput = HuffmanCoding.encode(canonical, input);
+		
+		/* Same lengths as the tree codes, assigned in (length, symbol) order */
+		int[] lengths = CanonicalCode.lengths(CodeTable.fromMap(canonical));
+		byte[] header = CanonicalCode.writeLengths(lengths);
+		CodeTable rebuilt = CanonicalCode.assign(CanonicalCode.readLengths(ByteBuffer.wrap(header)));
+		
+		boolean check = canonical.get("E").equals("00") && canonical.get("I").equals("01")
+				&& canonical.get("T").equals("10") && canonical.get("O").equals("110")
+				&& canonical.get("S").equals("111")
+				&& canonicalOutput.length() == output.length()
+				&& HuffmanCoding.decodeHuff(canonicalOutput, rebuilt.toMap()).equals(input)
+				&& header.length == 11;
+		
+		assertTrue("Failed to generate canonical codes correctly", check);
+	}
+	
+	@Test
+	public void testCompressedFile() throws Exception {
+		boolean check = withTempFiles((original, compressed, decompressed) -> {
+			Files.writeString(original, input, StandardCharsets.UTF_8);
+			HuffmanCoding.compress(original, compressed);
+			HuffmanCoding.decompress(compressed, decompressed);
+			return Files.readString(decompressed, StandardCharsets.UTF_8).equals(input);
+		});
+		
+		assertTrue("Failed to decompress the compressed file", check);
+	}
+	
+	@Test
+	public void testBlockFile() throws Exception {
+		boolean check = withTempFiles((original, compressed, decompressed) -> {
+			Files.writeString(original, input, StandardCharsets.UTF_8);
+			HuffmanCoding.compress(original, compressed, 4);
+			HuffmanCoding.decompress(compressed, decompressed);
+			try (HufBlockReader reader = new HufBlockReader(compressed)) {
+				return Files.readString(decompressed, StandardCharsets.UTF_8).equals(input)
+						&& reader.blockCount() == 3 && reader.read(3, 9).equals(input.substring(3, 9));
+			}
+		});
+		
+		assertTrue("Failed to decompress the block mode file", check);
+	}
+	
+	@Test
+	public void testByteMode() throws Exception {
+		byte[] data = new byte[1000];
+		for (int i = 0; i < data.length; i++)
+			data[i] = (byte) (i * i % 256);
+		
+		boolean check = Arrays.equals(HuffmanCoding.decompress_bytes(HuffmanCoding.compress_bytes(data)), data);
+		check = check && withTempFiles((original, compressed, decompressed) -> {
+			Files.write(original, data);
+			HuffmanCoding.compress_mapped(original, compressed, 300);
+			HuffmanCoding.decompress(compressed, decompressed);
+			try (HufBlockReader reader = new HufBlockReader(compressed)) {
+				return Arrays.equals(Files.readAllBytes(decompressed), data) && reader.blockCount() == 4
+						&& Arrays.equals(reader.readBytes(250, 650), Arrays.copyOfRange(data, 250, 650));
+			}
+		});
+		
+		assertTrue("Failed to compress and decompress bytes", check);
+	}
+	
+	@Test
+	public void testPipelineMatchesSerialWriter() throws Exception {
+		StringBuilder text = new StringBuilder();
+		Random random = new Random(11);
+		for (int i = 0; i < 5000; i++)
+			text.append((char) ('a' + random.nextInt(1 + i % 26)));
+		
+		boolean check = withTempFiles((original, compressed, serial) -> {
+			Files.writeString(original, text, StandardCharsets.UTF_8);
+			/* About 700 blocks through queues of one block, so the writer reorders all the time */
+			new BlockPipeline(3, 7, 1).compress(original, compressed);
+			
+			try (FileChannel out = FileChannel.open(serial, StandardOpenOption.WRITE)) {
+				HufBlockWriter writer = new HufBlockWriter(out, HufFormat.ALPHABET_CHAR, 7);
+				for (int start = 0; start < text.length(); start += 7)
+					writer.write(HuffmanBlock.encode(text, start, Math.min(text.length(), start + 7)));
+				writer.finish();
+			}
+			return Arrays.equals(Files.readAllBytes(compressed), Files.readAllBytes(serial));
+		});
+		
+		assertTrue("Pipeline output differs from the blocks written one by one", check);
+	}
+	
+	@Test
+	public void testPipelineFailure() throws Exception {
+		boolean check = withTempFiles((original, compressed, decompressed) -> {
+			Files.writeString(original, input.repeat(10000), StandardCharsets.UTF_8);
+			BlockPipeline pipeline = new BlockPipeline(2, 16, 1);
+			/* The reader fails: the input does not exist */
+			boolean failed = failsWithoutHanging(() -> pipeline.compress(original.resolveSibling("missing"), compressed));
+			/* The writer fails while the reader and the workers wait on full queues */
+			failed = failed && failsWithoutHanging(() -> pipeline.compress(original, original.resolve("output")));
+			return failed;
+		});
+		
+		assertTrue("Failed pipeline did not throw, or left its threads running", check);
+	}
+	
+	/* Whether the compression throws an IOException within a few seconds and stops all its threads */
+	private static boolean failsWithoutHanging(Callable<Long> compression) throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			executor.submit(compression).get(10, TimeUnit.SECONDS);
+			return false;
+		} catch (ExecutionException e) {
+			if (!(e.getCause() instanceof IOException))
+				return false;
+		} catch (TimeoutException e) {
+			return false;
+		} finally {
+			executor.shutdownNow();
+		}
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (System.nanoTime() < deadline) {
+			boolean running = false;
+			for (Thread thread : Thread.getAllStackTraces().keySet())
+				running = running || thread.getName().startsWith("huffman-");
+			if (!running)
+				return true;
+			Thread.sleep(10);
+		}
+		return false;
+	}
+	
+	@Test
+	public void testHashSpread() throws Exception {
+		/* Keys whose hash codes only differ above bit 20 */
+		HashTableOA<Integer, Integer> table = new HashTableOA<Integer, Integer>();
+		for (int i = 0; i < 4096; i++)
+			table.put(i << 20, i);
+		
+		Field hashesField = HashTableOA.class.getDeclaredField("hashes");
+		Field keysField = HashTableOA.class.getDeclaredField("keys");
+		hashesField.setAccessible(true);
+		keysField.setAccessible(true);
+		int[] hashes = (int[]) hashesField.get(table);
+		Object[] keys = (Object[]) keysField.get(table);
+		int mask = keys.length - 1;
+		boolean[] used = new boolean[keys.length];
+		int homeSlots = 0;
+		for (int i = 0; i < keys.length; i++)
+			if (keys[i] != null && !used[hashes[i] & mask]) {
+				used[hashes[i] & mask] = true;
+				homeSlots++;
+			}
+		
+		boolean check = table.size() == 4096 && table.get(4095 << 20) == 4095;
+		/* Random homes would cover about 3200 of the 8192 slots */
+		assertTrue("Keys differing in the high bits share too few home slots: " + homeSlots,
+				check && homeSlots > 2048);
+	}
+	
+	@Test
+	public void testObject2IntCounterMap() {
+		Object2IntCounterMap<String> counts = new Object2IntCounterMap<String>(2);
+		for (int i = 0; i < 1000; i++)
+			for (int j = 0; j <= i % 3; j++)
+				counts.increment("key" + i);
+		
+		boolean check = counts.size() == 1000 && counts.get("key4") == 2 && counts.get("key999") == 1
+				&& counts.get("missing") == 0 && counts.add("key5", 10) == 13;
+		
+		/* Removing half the keys must not hide the ones left behind them */
+		for (int i = 0; i < 1000; i += 2)
+			check = check && counts.remove("key" + i) == i % 3 + 1;
+		for (int i = 0; i < 1000; i++)
+			check = check && counts.get("key" + i) == (i % 2 == 0 ? 0 : i == 5 ? 13 : i % 3 + 1);
+		check = check && counts.size() == 500 && counts.remove("key0") == 0 && counts.add("key1", -2) == 0
+				&& !counts.containsKey("key1") && counts.size() == 499;
+		
+		assertTrue("Object2IntCounterMap lost or miscounted keys", check);
+	}
+	
+	@Test
+	public void testInt2IntCounterMap() {
+		Int2IntCounterMap counts = new Int2IntCounterMap(2);
+		/* Keys that only differ in the high bits, and negative keys */
+		for (int i = 0; i < 4096; i++) {
+			counts.increment(i << 20);
+			counts.add(-i - 1, i + 1);
+		}
+		
+		boolean check = counts.size() == 8192 && counts.get(7 << 20) == 1 && counts.get(-8) == 8
+				&& counts.get(12345) == 0 && counts.increment(7 << 20) == 2;
+		
+		for (int i = 0; i < 4096; i += 2)
+			check = check && counts.remove(i << 20) == 1;
+		for (int i = 0; i < 4096; i++)
+			check = check && counts.get(i << 20) == (i % 2 == 0 ? 0 : i == 7 ? 2 : 1) && counts.get(-i - 1) == i + 1;
+		check = check && counts.size() == 6144 && counts.add(-1, -1) == 0 && !counts.containsKey(-1)
+				&& counts.size() == 6143;
+		
+		assertTrue("Int2IntCounterMap lost or miscounted keys", check);
+	}
+	
+	@Test
+	public void testHuffmanNodeOrder() {
+		String[] symbols = { " ", "A", "B", "E", "ab", "b", "e", "ee", "z" }; // In string order
+		int[] weights = { 3, 1, 3, 1, 2, 3, 1, 2, 1 };
+		
+		boolean check = true;
+		for (int i = 0; i < symbols.length; i++)
+			for (int j = 0; j < symbols.length; j++) {
+				int expected = new BTNode<Integer, String>(weights[i], symbols[i])
+						.compareTo(new BTNode<Integer, String>(weights[j], symbols[j]));
+				int actual = new HuffmanNode(weights[i], i, symbols[i])
+						.compareTo(new HuffmanNode(weights[j], j, symbols[j]));
+				check = check && Integer.signum(expected) == Integer.signum(actual);
+			}
+		
+		assertTrue("HuffmanNode does not sort like BTNode", check);
+	}
+	
+	@Test
+	public void testFrequencyTableOverflow() {
+		int max = Integer.MAX_VALUE;
+		FrequencyTable chars = new FrequencyTable();
+		chars.add('a', max - 1);
+		chars.add("a"); // Reaches the limit exactly
+		chars.add("bc"); // Past the total limit, but no count overflows
+		boolean check = chars.get('a') == max && chars.total() == max + 2L;
+		check = check && overflows(() -> chars.add("ab"));
+		check = check && overflows(() -> chars.add('a', 1));
+		check = check && chars.get('a') == max && chars.get('b') == 1 && chars.total() == max + 2L;
+		
+		FrequencyTable bytes = new FrequencyTable(FrequencyTable.BYTE_ALPHABET);
+		bytes.add(7, max - 1);
+		ByteBuffer twice = ByteBuffer.wrap(new byte[] { 1, 7, 7 });
+		ByteBuffer direct = ByteBuffer.allocateDirect(3).put(twice.duplicate()).flip();
+		check = check && overflows(() -> bytes.add(twice)) && overflows(() -> bytes.add(direct));
+		check = check && bytes.get(7) == max - 1 && bytes.get(1) == 0 && bytes.total() == max - 1;
+		
+		FrequencyTable other = new FrequencyTable(FrequencyTable.BYTE_ALPHABET);
+		other.add(1, max);
+		bytes.merge(other); // Different symbols, so nothing overflows
+		other.add(7, 2);
+		check = check && overflows(() -> bytes.merge(other));
+		check = check && bytes.get(1) == max && bytes.get(7) == max - 1 && bytes.total() == 2L * max - 1;
+		
+		try {
+			bytes.add(7, -1);
+			check = false;
+		} catch (IllegalArgumentException e) {
+			// Counts can only grow
+		}
+		
+		assertTrue("FrequencyTable counts wrapped around or changed on overflow", check);
+	}
+	
+	/* Whether the counting throws an ArithmeticException */
+	private static boolean overflows(Runnable counting) {
+		try {
+			counting.run();
+			return false;
+		} catch (ArithmeticException e) {
+			return true;
+		}
+	}
+	
+	@Test
+	public void testLengthLimitedCode() {
+		/* Fibonacci frequencies give the deepest possible Huffman tree */
+		FrequencyTable frequencies = new FrequencyTable();
+		StringBuilder text = new StringBuilder();
+		int previous = 0, frequency = 1;
+		for (int i = 0; i < 20; i++) {
+			frequencies.add('a' + i, frequency);
+			for (int j = 0; j < frequency; j++)
+				text.append((char) ('a' + i));
+			frequency += previous;
+			previous = frequency - previous;
+		}
+		int maxLength = 8;
+		int[] huffman = CanonicalCode.lengths(HuffmanTree.build(frequencies).codeTable());
+		int[] limited = LengthLimitedCode.lengths(frequencies, maxLength);
+		
+		boolean check = Arrays.stream(huffman).max().getAsInt() == 19;
+		long kraft = 0; // Sum of 2^(maxLength - length), at most 2^maxLength
+		for (int length : limited) {
+			check = check && length <= maxLength;
+			if (length > 0)
+				kraft += 1L << (maxLength - length);
+		}
+		check = check && kraft <= 1L << maxLength;
+		
+		CodeTable codeTable = LengthLimitedCode.codeTable(frequencies, maxLength);
+		BitBuffer bits = new BitBuffer();
+		codeTable.encode(text, bits);
+		check = check && new HuffmanDecoder(codeTable).decode(bits).equals(text.toString());
+		
+		assertTrue("Length limited codes are too long or don't round trip", check);
+	}
+	
+	@Test
+	public void testLengthLimitTooSmall() {
+		FrequencyTable frequencies = new FrequencyTable();
+		for (int i = 0; i < 20; i++)
+			frequencies.add('a' + i, i + 1);
+		
+		boolean check = LengthLimitedCode.lengths(frequencies, 5).length > 0;
+		for (int maxLength : new int[] { 0, 4 }) {
+			try {
+				LengthLimitedCode.lengths(frequencies, maxLength);
+				check = false;
+			} catch (IllegalArgumentException e) {
+				// 20 symbols need codes of at least 5 bits
+			}
+		}
+		
+		assertTrue("Length limit too small for the alphabet was accepted", check);
+	}
+	
+	@Test
+	public void testIncrementalResize() throws Exception {
+		HashTableSC<Integer, Integer> table = new HashTableSC<Integer, Integer>(4, 0.75, true, key -> key);
+		HashMap<Integer, Integer> expected = new HashMap<Integer, Integer>();
+		Field oldBuckets = HashTableSC.class.getDeclaredField("oldBuckets");
+		oldBuckets.setAccessible(true);
+		
+		boolean check = true;
+		int checksDuringMigration = 0;
+		for (int i = 0; i < 2000; i++) {
+			table.put(i, i);
+			expected.put(i, i);
+			if (oldBuckets.get(table) == null)
+				continue;
+			
+			/* Reads, updates and deletes while the old buckets are still being moved */
+			checksDuringMigration++;
+			check = check && table.get(i / 2).equals(expected.get(i / 2)) && table.get(-1 - i) == null;
+			if (i % 3 == 0)
+				check = check && table.remove(i / 3).equals(expected.remove(i / 3)) && table.remove(i / 3) == null;
+			if (i % 5 == 0) {
+				table.merge(i, 1, Integer::sum);
+				expected.merge(i, 1, Integer::sum);
+			}
+			if (i % 7 == 0) {
+				HashMap<Integer, Integer> actual = new HashMap<Integer, Integer>();
+				table.forEach((key, value) -> actual.put(key, value));
+				check = check && actual.equals(expected) && table.getKeys().size() == expected.size();
+			}
+			check = check && table.size() == expected.size();
+		}
+		
+		HashMap<Integer, Integer> actual = new HashMap<Integer, Integer>();
+		table.forEach((key, value) -> actual.put(key, value));
+		check = check && checksDuringMigration > 100 && actual.equals(expected) && table.size() == expected.size();
+		
+		assertTrue("HashTableSC lost entries while resizing incrementally", check);
+	}
+	
+	@Test
+	public void testHeapsDrainInOrder() {
+		List<PriorityQueue<Integer>> heaps = new ArrayList<PriorityQueue<Integer>>();
+		heaps.add(new BinaryHeap<Integer>(1));
+		heaps.add(new DaryHeap<Integer>(2, 1));
+		heaps.add(new DaryHeap<Integer>(3));
+		heaps.add(new DaryHeap<Integer>());
+		heaps.add(new PairingHeap<Integer>());
+		
+		boolean check = true;
+		for (PriorityQueue<Integer> heap : heaps) {
+			/* Values in 0..49, so there are many duplicates */
+			Random random = new Random(17);
+			SortedList<Integer> expected = new SortedLinkedList<Integer>();
+			for (int i = 0; i < 1000; i++) {
+				int value = random.nextInt(50);
+				heap.add(value);
+				expected.add(value);
+				if (i % 3 == 0) // Take some out before everything is in
+					check = check && heap.removeMin().equals(expected.removeIndex(0));
+			}
+			check = check && heap.size() == expected.size() && heap.min().equals(expected.get(0));
+			while (!expected.isEmpty())
+				check = check && heap.removeMin().equals(expected.removeIndex(0));
+			check = check && heap.isEmpty() && heap.removeMin() == null && heap.min() == null;
+		}
+		
+		assertTrue("A heap did not drain in sorted order", check);
+	}
+	
+	@Test
+	public void testSortedArrayList() {
+		Random random = new Random(23);
+		int[] values = new int[500];
+		SortedList<Integer> list = new SortedArrayList<Integer>(1);
+		for (int i = 0; i < values.length; i++) {
+			values[i] = random.nextInt(40);
+			list.add(values[i]);
+		}
+		Arrays.sort(values);
+		
+		boolean check = list.size() == values.length;
+		for (int i = 0; i < values.length; i++)
+			check = check && list.get(i) == values[i];
+		
+		/* Duplicates: firstIndex finds the first copy, remove takes out just one */
+		int value = values[250];
+		int first = 0;
+		while (values[first] != value)
+			first++;
+		check = check && list.firstIndex(value) == first && list.remove(value) && list.size() == values.length - 1
+				&& list.firstIndex(-1) == -1 && !list.remove(-1);
+		check = check && list.removeIndex(0) == values[0]
+				&& list.removeIndex(list.size() - 1) == values[values.length - 1];
+		for (int i = 1; i < list.size(); i++)
+			check = check && list.get(i - 1) <= list.get(i);
+		
+		assertTrue("SortedArrayList is not kept in order", check);
+	}
+	
+	@Test
+	public void testArrayListShifts() {
+		ArrayList<Integer> list = new ArrayList<Integer>(1);
+		for (int i = 0; i < 20; i++) // Grows past its capacity many times
+			list.add(i, i);
+		list.add(0, -1);
+		list.add(list.size(), 20);
+		list.add(5, 100);
+		
+		boolean check = list.size() == 23 && list.first() == -1 && list.last() == 20 && list.get(5) == 100
+				&& list.get(4) == 3 && list.get(6) == 4;
+		check = check && list.remove(0) && list.remove(list.size() - 1) && list.remove(4) && !list.remove(list.size());
+		for (int i = 0; i < 20; i++)
+			check = check && list.get(i) == i;
+		check = check && list.size() == 20;
+		
+		try {
+			list.add(list.size() + 1, 0);
+			check = false;
+		} catch (ArrayIndexOutOfBoundsException e) {
+			// Only positions 0 to size are valid
+		}
+		
+		assertTrue("ArrayList insertions or removals moved the wrong elements", check);
+	}
+	
+	@Test
+	public void testLinkedListCursor() {
+		LinkedList<Integer> list = new LinkedList<Integer>();
+		java.util.ArrayList<Integer> expected = new java.util.ArrayList<Integer>(); // Same name as our ArrayList
+		Random random = new Random(15);
+		boolean check = true;
+		
+		for (int step = 0; step < 2000 && check; step++) {
+			/* Leaves the cursor somewhere in the middle before changing the list */
+			int reached = expected.isEmpty() ? 0 : random.nextInt(expected.size());
+			for (int i = 0; i < reached; i++)
+				check = check && list.get(i).equals(expected.get(i));
+			
+			int operation = random.nextInt(20);
+			int value = random.nextInt(10);
+			if (operation < 6) {
+				list.add(value);
+				expected.add(value);
+			} else if (operation < 12) {
+				int index = random.nextInt(expected.size() + 1);
+				list.add(index, value);
+				expected.add(index, value);
+			} else if (operation < 17 && !expected.isEmpty()) {
+				int index = random.nextInt(expected.size());
+				check = check && list.remove(index);
+				expected.remove(index);
+			} else if (operation == 17) {
+				check = check && list.remove((Integer) value) == expected.remove((Integer) value);
+			} else if (operation == 18) {
+				int before = expected.size();
+				expected.removeIf(e -> e == value);
+				check = check && list.removeAll(value) == before - expected.size();
+			} else if (operation == 19 && random.nextInt(10) == 0) {
+				list.clear();
+				expected.clear();
+			}
+			
+			/* Continues from where the cursor was, like a loop that changes the list as it goes */
+			for (int i = Math.min(reached, expected.size()); i < expected.size(); i++)
+				check = check && list.get(i).equals(expected.get(i));
+			check = check && list.size() == expected.size();
+			if (!expected.isEmpty())
+				check = check && list.first().equals(expected.get(0))
+						&& list.last().equals(expected.get(expected.size() - 1));
+			for (int i = 0; i < expected.size(); i++)
+				check = check && list.get(i).equals(expected.get(i));
+		}
+		
+		assertTrue("LinkedList positions or last element went wrong after changing the list", check);
+	}
+	
+	@Test
+	public void testLinkedListTail() {
+		LinkedList<Integer> list = new LinkedList<Integer>();
+		for (int i = 0; i < 10; i++)
+			list.add(i);
+		boolean check = list.get(8) == 8 && list.last() == 9; // The cursor stays at position 8
+		
+		list.clear();
+		check = check && list.isEmpty();
+		for (int i = 0; i < 10; i++)
+			list.add(10 + i);
+		/* Right after clear(), reading past the old cursor must not start from a removed node */
+		check = check && list.get(9) == 19 && list.get(8) == 18 && list.last() == 19;
+		
+		check = check && list.remove(9) && list.last() == 18; // The last node removed by position
+		check = check && list.remove((Integer) 18) && list.last() == 17; // And by value
+		list.add(17);
+		check = check && list.removeAll(17) == 2 && list.last() == 16 && list.size() == 7;
+		list.add(list.size(), 30); // Inserted at the end, so it is the new last node
+		list.add(0, 5);
+		check = check && list.last() == 30 && list.first() == 5 && list.get(8) == 30 && list.size() == 9;
+		
+		while (!list.isEmpty())
+			list.remove(list.size() - 1);
+		list.add(1); // The tail must be back at the header
+		check = check && list.first() == 1 && list.last() == 1 && list.size() == 1;
+		
+		assertTrue("LinkedList lost track of its last node", check);
+	}
+	
+	@Test
+	public void testArrayListBulk() {
+		ArrayList<Integer> list = new ArrayList<Integer>(1);
+		list.ensureCapacity(50);
+		list.add(7);
+		ArrayList<Integer> array = new ArrayList<Integer>(2);
+		LinkedList<Integer> linked = new LinkedList<Integer>();
+		for (int i = 0; i < 10; i++) {
+			array.add(i % 3);
+			linked.add(i % 3);
+		}
+		list.addAll(array); // Copied straight from the other array
+		list.addAll(linked); // Copied through its iterator
+		list.addAll(new ArrayList<Integer>());
+		
+		boolean check = list.size() == 21 && list.get(0) == 7;
+		for (int i = 0; i < 20; i++)
+			check = check && list.get(i + 1) == i % 10 % 3;
+		
+		/* removeAll keeps the order of the elements left */
+		check = check && list.removeAll(1) == 6 && list.size() == 15 && !list.contains(1) && list.removeAll(1) == 0;
+		check = check && list.get(0) == 7 && list.get(1) == 0 && list.get(2) == 2 && list.get(3) == 0;
+		try {
+			list.removeAll(null);
+			check = false;
+		} catch (IllegalArgumentException e) {
+			// Same as remove(null)
+		}
+		
+		assertTrue("ArrayList bulk operations lost or misplaced elements", check);
+	}
+	
+	@Test
+	public void testBitList() {
+		BitList bits = new BitList(1);
+		StringBuilder expected = new StringBuilder();
+		Random random = new Random(5);
+		for (int i = 0; i < 30; i++) { // Crosses word boundaries at different offsets
+			int length = random.nextInt(65);
+			long code = random.nextLong();
+			bits.append(code, length);
+			for (int j = length - 1; j >= 0; j--)
+				expected.append((code >>> j) & 1);
+		}
+		
+		boolean check = bits.size() == expected.length();
+		for (int i = 0; i < expected.length(); i++)
+			check = check && bits.getBit(i) == expected.charAt(i) - '0';
+		check = check && bits.peek(60, 10) == Long.parseLong(expected.substring(60, 70), 2)
+				&& bits.peek(bits.size() - 1, 3) == (expected.charAt(expected.length() - 1) - '0') << 2;
+		
+		/* Appending a list to itself copies the bits it had before the call */
+		bits.appendAll(bits);
+		expected.append(expected);
+		for (int i = 0; i < expected.length(); i++)
+			check = check && bits.getBit(i) == expected.charAt(i) - '0';
+		check = check && bits.size() == expected.length();
+		
+		try {
+			bits.peek(0, 0);
+			check = false;
+		} catch (IllegalArgumentException e) {
+			// 1 to 64 bits only
+		}
+		
+		assertTrue("BitList stored or copied the wrong bits", check);
+	}
+	
+	@Test
+	public void testPrimitiveLists() {
+		IntArrayList ints = new IntArrayList(1);
+		LongArrayList longs = new LongArrayList(1);
+		for (int i = 0; i < 100; i++) {
+			ints.add(99 - i);
+			longs.add((99L - i) << 40);
+		}
+		ints.addAll(new int[] { -1, -2, -3, -4 }, 1, 2);
+		longs.addAll(new long[] { -1, -2, -3, -4 }, 1, 2);
+		
+		boolean check = ints.size() == 102 && longs.size() == 102 && ints.get(0) == 99 && ints.get(101) == -3
+				&& longs.get(0) == 99L << 40 && longs.get(100) == -2;
+		check = check && ints.set(1, 500) == 98 && longs.set(1, 500) == 98L << 40;
+		ints.sort();
+		longs.sort();
+		int[] intArray = ints.toArray();
+		long[] longArray = longs.toArray();
+		check = check && intArray.length == 102 && intArray[0] == -3 && intArray[101] == 500
+				&& longArray.length == 102 && longArray[0] == -3 && longArray[101] == 99L << 40;
+		for (int i = 1; i < 102; i++)
+			check = check && intArray[i - 1] <= intArray[i] && longArray[i - 1] <= longArray[i];
+		
+		try {
+			ints.get(102);
+			check = false;
+		} catch (IndexOutOfBoundsException e) {
+			// Past the last value
+		}
+		ints.clear();
+		longs.clear();
+		check = check && ints.isEmpty() && longs.isEmpty();
+		
+		assertTrue("IntArrayList or LongArrayList lost values", check);
+	}
+	
 	@Test
 	public void testBytes() {
 		inputBytes = input.getBytes().length;